@@ -0,0 +1,24 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Точка входа benchmarks.jar: те же аргументы, что у org.openjdk.jmh.Main, но результаты по умолчанию
+// пишутся в JSON, чтобы сравнивать прогоны разных релизов
+public class BenchmarkRunner {
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.addAll(List.of("-rf", "json"));
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.addAll(List.of("-rff", DEFAULT_RESULT_FILE));
+        }
+        Main.main(jmhArgs.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.generator;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Строки пишутся через COPY ... FROM STDIN в формате CSV: на миллионах строк это на порядок быстрее пакетных INSERT
+final class CopyWriter implements AutoCloseable {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final StringBuilder row = new StringBuilder();
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+    private int fields;
+    private long rows;
+
+    CopyWriter(Connection connection, String table, String columns) throws SQLException {
+        copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + columns + ") FROM STDIN (FORMAT csv)");
+    }
+
+    CopyWriter field(long value) {
+        separate();
+        row.append(value);
+        return this;
+    }
+
+    CopyWriter field(double value) {
+        separate();
+        row.append(value);
+        return this;
+    }
+
+    CopyWriter field(boolean value) {
+        separate();
+        row.append(value);
+        return this;
+    }
+
+    CopyWriter field(LocalDateTime value) {
+        separate();
+        if (value != null) {
+            TIMESTAMP.formatTo(value, row);
+        }
+        return this;
+    }
+
+    CopyWriter field(String value) {
+        separate();
+        if (value != null) {
+            row.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        return this;
+    }
+
+    void endRow() throws SQLException {
+        buffer.append(row).append('\n');
+        row.setLength(0);
+        fields = 0;
+        rows++;
+        if (buffer.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+        copyIn.endCopy();
+    }
+
+    private void separate() {
+        if (fields++ > 0) {
+            row.append(',');
+        }
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
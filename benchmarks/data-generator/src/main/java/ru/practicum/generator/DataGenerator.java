@@ -0,0 +1,53 @@
+package ru.practicum.generator;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+// Детерминированный генератор данных для нагрузочных тестов: накатывает миграции сервисов и заполняет их базы.
+// Существующие данные в таблицах сервисов удаляются.
+// Запуск из корня репозитория:
+//   java -jar benchmarks/data-generator/target/data-generator.jar --events=100000 --hits=5000000 [--target=ewm|stats]
+// Подключения: EWM_DB_URL/EWM_DB_USER/EWM_DB_PASSWORD и STATS_DB_URL/STATS_DB_USER/STATS_DB_PASSWORD,
+// каталоги миграций: EWM_MIGRATIONS и STATS_MIGRATIONS
+public class DataGenerator {
+
+    public static void main(String[] args) throws SQLException {
+        GeneratorSettings settings = GeneratorSettings.parse(args);
+        long started = System.nanoTime();
+
+        EventPlan plan = new EventPlan(settings, StatsDataWriter.eventHits(settings));
+
+        if (settings.ewm()) {
+            try (Connection connection = open(settings.ewmDatabase())) {
+                new EwmDataWriter(settings, plan).write(connection);
+                connection.commit();
+            }
+        }
+        if (settings.stats()) {
+            try (Connection connection = open(settings.statsDatabase())) {
+                new StatsDataWriter(settings, plan).write(connection);
+                connection.commit();
+            }
+        }
+
+        System.out.printf("Готово за %d с, seed=%d%n", (System.nanoTime() - started) / 1_000_000_000, settings.seed());
+    }
+
+    // Схема приводится к последней версии теми же миграциями и с теми же настройками baseline, что у сервиса
+    private static Connection open(GeneratorSettings.Database database) throws SQLException {
+        Flyway.configure()
+                .dataSource(database.url(), database.user(), database.password())
+                .locations("filesystem:" + database.migrations())
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        Connection connection = DriverManager.getConnection(database.url(), database.user(), database.password());
+        connection.setAutoCommit(false);
+        return connection;
+    }
+}
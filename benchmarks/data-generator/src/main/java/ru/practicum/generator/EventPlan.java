@@ -0,0 +1,79 @@
+package ru.practicum.generator;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+// Общая для обеих баз часть данных: какие события опубликованы, когда и сколько у них просмотров.
+// Из неё ewm берёт views, а статистика - число хитов по uri события, поэтому просмотры в обеих базах сходятся
+final class EventPlan {
+    // доля опубликованных событий, остальные поровну делят PENDING и CANCELED
+    private static final double PUBLISHED_SHARE = 0.8;
+    private static final double POPULARITY_EXPONENT = 1.1;
+
+    final int events;
+    final String[] states;
+    final LocalDateTime[] createdOn;
+    final LocalDateTime[] publishedOn;
+    final LocalDateTime[] eventDate;
+    final long[] hits;
+    final long[] requests;
+    final int[] publishedIds;
+
+    EventPlan(GeneratorSettings settings, long eventHits) {
+        events = settings.events();
+        states = new String[events + 1];
+        createdOn = new LocalDateTime[events + 1];
+        publishedOn = new LocalDateTime[events + 1];
+        eventDate = new LocalDateTime[events + 1];
+        hits = new long[events + 1];
+        requests = new long[events + 1];
+
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        LocalDateTime anchor = settings.anchor();
+        long windowSeconds = settings.days() * 86_400L;
+        int published = 0;
+        for (int id = 1; id <= events; id++) {
+            double roll = random.nextDouble();
+            states[id] = roll < PUBLISHED_SHARE ? "PUBLISHED" : roll < (1 + PUBLISHED_SHARE) / 2 ? "PENDING" : "CANCELED";
+            createdOn[id] = anchor.minusSeconds(windowSeconds + random.nextLong(30 * 86_400L));
+            eventDate[id] = anchor.plusSeconds(random.nextLong(-14 * 86_400L, 180 * 86_400L));
+            if (states[id].equals("PUBLISHED")) {
+                publishedOn[id] = anchor.minusSeconds(1 + random.nextLong(windowSeconds));
+                if (eventDate[id].isBefore(publishedOn[id].plusHours(2))) {
+                    eventDate[id] = publishedOn[id].plusHours(2);
+                }
+                published++;
+            }
+        }
+
+        publishedIds = new int[published];
+        for (int id = 1, i = 0; id <= events; id++) {
+            if (publishedOn[id] != null) {
+                publishedIds[i++] = id;
+            }
+        }
+        if (published == 0) {
+            return;
+        }
+
+        // популярность по просмотрам и по заявкам - независимые перестановки опубликованных событий
+        ZipfDistribution zipf = new ZipfDistribution(published, POPULARITY_EXPONENT);
+        spread(zipf.allocate(eventHits, new SplittableRandom(settings.seed() + 1)), hits,
+                new SplittableRandom(settings.seed() + 2));
+        spread(zipf.allocate(settings.requests(), new SplittableRandom(settings.seed() + 3)), requests,
+                new SplittableRandom(settings.seed() + 4));
+    }
+
+    private void spread(long[] byRank, long[] byEvent, SplittableRandom random) {
+        int[] order = publishedIds.clone();
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        for (int rank = 0; rank < order.length; rank++) {
+            byEvent[order[rank]] = byRank[rank];
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.generator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+// Пользователи, категории, события с местами, заявки и подборки. Идентификаторы задаются явно и идут с 1,
+// чтобы нагрузочный тест и ручные запросы могли на них опираться
+final class EwmDataWriter {
+    private static final List<String> KINDS = List.of("Концерт", "Выставка", "Лекция", "Мастер-класс", "Фестиваль",
+            "Экскурсия", "Спектакль", "Квиз", "Кинопоказ", "Забег", "Ярмарка", "Стендап");
+    private static final List<String> TOPICS = List.of("джаза", "современного искусства", "астрономии", "керамики",
+            "уличной еды", "по старому городу", "по пьесе Чехова", "для любителей истории", "под открытым небом",
+            "на набережной", "выходного дня", "молодых авторов");
+    private static final String DESCRIPTION = "Программа, место сбора и условия участия описаны ниже. ";
+
+    private final GeneratorSettings settings;
+    private final EventPlan plan;
+
+    EwmDataWriter(GeneratorSettings settings, EventPlan plan) {
+        this.settings = settings;
+        this.plan = plan;
+    }
+
+    void write(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE compilation_events, compilations, requests, events, locations, categories, users " +
+                    "RESTART IDENTITY CASCADE");
+        }
+
+        writeUsers(connection);
+        writeCategories(connection);
+        long[] confirmed = countConfirmed();
+        writeEvents(connection, confirmed);
+        long requests = writeRequests(connection);
+        long compilationEvents = writeCompilations(connection);
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : List.of("users", "categories", "locations", "events", "compilations")) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                        "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + "), false)");
+            }
+            statement.execute("ANALYZE");
+        }
+
+        System.out.printf("ewm: пользователей %d, категорий %d, событий %d (опубликовано %d), заявок %d, " +
+                        "подборок %d (%d событий в них)%n", settings.users(), settings.categories(), plan.events,
+                plan.publishedIds.length, requests, settings.compilations(), compilationEvents);
+    }
+
+    private void writeUsers(Connection connection) throws SQLException {
+        try (CopyWriter copy = new CopyWriter(connection, "users", "id, email, name")) {
+            for (int id = 1; id <= settings.users(); id++) {
+                copy.field(id).field("user" + id + "@example.com").field("Пользователь " + id).endRow();
+            }
+        }
+    }
+
+    private void writeCategories(Connection connection) throws SQLException {
+        try (CopyWriter copy = new CopyWriter(connection, "categories", "id, name")) {
+            for (int id = 1; id <= settings.categories(); id++) {
+                copy.field(id).field("Категория " + id).endRow();
+            }
+        }
+    }
+
+    // Подтверждённые заявки нужны событиям раньше самих заявок: счётчик confirmed_requests хранится в events
+    private long[] countConfirmed() throws SQLException {
+        long[] confirmed = new long[plan.events + 1];
+        forEachRequest((eventId, requesterId, status) -> {
+            if (status.equals("CONFIRMED")) {
+                confirmed[eventId]++;
+            }
+        });
+        return confirmed;
+    }
+
+    private void writeEvents(Connection connection, long[] confirmed) throws SQLException {
+        SplittableRandom random = new SplittableRandom(settings.seed() + 10);
+        try (CopyWriter locations = new CopyWriter(connection, "locations", "id, lat, lon")) {
+            for (int id = 1; id <= plan.events; id++) {
+                locations.field(id)
+                        .field(55.5 + random.nextDouble() * 0.5)
+                        .field(37.3 + random.nextDouble() * 0.6)
+                        .endRow();
+            }
+        }
+
+        try (CopyWriter events = new CopyWriter(connection, "events", "id, title, annotation, description, event_date, " +
+                "location_id, paid, participant_limit, request_moderation, state, created_on, published_on, " +
+                "initiator_id, category_id, confirmed_requests, views")) {
+            for (int id = 1; id <= plan.events; id++) {
+                String title = KINDS.get(random.nextInt(KINDS.size())) + " " + TOPICS.get(random.nextInt(TOPICS.size()));
+                boolean moderated = moderated(id);
+                // лимит либо не задан, либо оставляет часть мест свободными
+                long limit = random.nextInt(3) == 0 ? 0 : confirmed[id] + random.nextInt(1, 50);
+                events.field(id)
+                        .field(title)
+                        .field(title + ": " + DESCRIPTION.repeat(1 + random.nextInt(3)).trim())
+                        .field(DESCRIPTION.repeat(5 + random.nextInt(20)).trim())
+                        .field(plan.eventDate[id])
+                        .field(id)
+                        .field(random.nextInt(3) == 0)
+                        .field(limit)
+                        .field(moderated)
+                        .field(plan.states[id])
+                        .field(plan.createdOn[id])
+                        .field(plan.publishedOn[id])
+                        .field(initiatorOf(id))
+                        .field(1 + random.nextInt(settings.categories()))
+                        .field(confirmed[id])
+                        .field(plan.hits[id])
+                        .endRow();
+            }
+        }
+    }
+
+    private long writeRequests(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(settings.seed() + 11);
+        try (CopyWriter copy = new CopyWriter(connection, "requests", "created, event_id, requester_id, status")) {
+            forEachRequest((eventId, requesterId, status) -> copy
+                    .field(plan.publishedOn[eventId].plusSeconds(random.nextLong(1, 7 * 86_400L)))
+                    .field(eventId)
+                    .field(requesterId)
+                    .field(status)
+                    .endRow());
+            return copy.rows();
+        }
+    }
+
+    private long writeCompilations(Connection connection) throws SQLException {
+        if (plan.publishedIds.length == 0) {
+            return 0;
+        }
+
+        SplittableRandom random = new SplittableRandom(settings.seed() + 12);
+        try (CopyWriter compilations = new CopyWriter(connection, "compilations", "id, title, pinned")) {
+            for (int id = 1; id <= settings.compilations(); id++) {
+                compilations.field(id).field("Подборка " + id).field(random.nextInt(5) == 0).endRow();
+            }
+        }
+
+        try (CopyWriter links = new CopyWriter(connection, "compilation_events", "compilation_id, event_id")) {
+            for (int id = 1; id <= settings.compilations(); id++) {
+                Set<Integer> events = new HashSet<>();
+                int size = Math.min(1 + random.nextInt(12), plan.publishedIds.length);
+                while (events.size() < size) {
+                    events.add(plan.publishedIds[random.nextInt(plan.publishedIds.length)]);
+                }
+                for (int eventId : events) {
+                    links.field(id).field(eventId).endRow();
+                }
+            }
+            return links.rows();
+        }
+    }
+
+    // Заявки события идут от подряд идущих пользователей со случайного места, минуя инициатора,
+    // поэтому пара событие-пользователь не повторяется. Последовательность зависит только от seed
+    private void forEachRequest(RequestConsumer consumer) throws SQLException {
+        SplittableRandom random = new SplittableRandom(settings.seed() + 20);
+        int users = settings.users();
+        for (int eventId : plan.publishedIds) {
+            long count = Math.min(plan.requests[eventId], users - 1);
+            boolean moderated = moderated(eventId);
+            int initiator = initiatorOf(eventId);
+            int requester = random.nextInt(users);
+            for (long i = 0; i < count; i++) {
+                requester = requester % users + 1;
+                if (requester == initiator) {
+                    requester = requester % users + 1;
+                }
+                consumer.accept(eventId, requester, moderated ? moderatedStatus(random) : "CONFIRMED");
+            }
+        }
+    }
+
+    private static String moderatedStatus(SplittableRandom random) {
+        int roll = random.nextInt(10);
+        return roll < 6 ? "CONFIRMED" : roll < 9 ? "PENDING" : "REJECTED";
+    }
+
+    private boolean moderated(int eventId) {
+        return Math.floorMod(Long.hashCode(settings.seed() * 31 + eventId), 2) == 0;
+    }
+
+    private int initiatorOf(int eventId) {
+        return 1 + Math.floorMod(Long.hashCode(settings.seed() * 17 + eventId * 7919L), settings.users());
+    }
+
+    @FunctionalInterface
+    private interface RequestConsumer {
+        void accept(int eventId, int requesterId, String status) throws SQLException;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.generator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Объёмы задаются аргументами вида --events=100000, подключения - переменными окружения (их же задаёт LocalStand из load-test).
+// При одинаковых seed, объёмах и anchor генератор выдаёт одни и те же строки
+record GeneratorSettings(long seed,
+                         int users,
+                         int categories,
+                         int events,
+                         long requests,
+                         int compilations,
+                         long hits,
+                         int visitors,
+                         int days,
+                         LocalDateTime anchor,
+                         boolean ewm,
+                         boolean stats,
+                         Database ewmDatabase,
+                         Database statsDatabase) {
+
+    private static final Set<String> KEYS = Set.of("seed", "users", "categories", "events", "requests",
+            "compilations", "hits", "visitors", "days", "anchor", "target");
+
+    record Database(String url, String user, String password, String migrations) {
+    }
+
+    static GeneratorSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !KEYS.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Неизвестный аргумент " + arg + ", допустимые: " + KEYS);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String target = values.getOrDefault("target", "all");
+        if (!Set.of("all", "ewm", "stats").contains(target)) {
+            throw new IllegalArgumentException("target должен быть all, ewm или stats");
+        }
+
+        return new GeneratorSettings(
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Integer.parseInt(values.getOrDefault("users", "20000")),
+                Integer.parseInt(values.getOrDefault("categories", "50")),
+                Integer.parseInt(values.getOrDefault("events", "100000")),
+                Long.parseLong(values.getOrDefault("requests", "1000000")),
+                Integer.parseInt(values.getOrDefault("compilations", "500")),
+                Long.parseLong(values.getOrDefault("hits", "5000000")),
+                Integer.parseInt(values.getOrDefault("visitors", "200000")),
+                Integer.parseInt(values.getOrDefault("days", "90")),
+                // по умолчанию данные заканчиваются началом текущих суток, чтобы попадать в окно запросов статистики
+                values.containsKey("anchor")
+                        ? LocalDate.parse(values.get("anchor")).atStartOfDay()
+                        : LocalDate.now().atStartOfDay(),
+                !target.equals("stats"),
+                !target.equals("ewm"),
+                new Database(env("EWM_DB_URL", "jdbc:postgresql://localhost:5432/ewm"), env("EWM_DB_USER", "ewm"),
+                        env("EWM_DB_PASSWORD", "ewm"), env("EWM_MIGRATIONS", "ewm-service/src/main/resources/db/migration")),
+                new Database(env("STATS_DB_URL", "jdbc:postgresql://localhost:5432/stats"), env("STATS_DB_USER", "stats"),
+                        env("STATS_DB_PASSWORD", "stats"),
+                        env("STATS_MIGRATIONS", "stats-server/stat-service/src/main/resources/db/migration")));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.generator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+// Хиты по uri опубликованных событий - строго после публикации, в количестве из EventPlan, плюс хиты списка /events.
+// Агрегаты и скетчи очищаются: stat-service пересчитает их при запуске, заодно разложив хиты по секциям
+final class StatsDataWriter {
+    static final String APP = "ewm-main-service";
+    // доля хитов списка /events от общего числа
+    static final double LISTING_SHARE = 0.1;
+
+    private final GeneratorSettings settings;
+    private final EventPlan plan;
+
+    StatsDataWriter(GeneratorSettings settings, EventPlan plan) {
+        this.settings = settings;
+        this.plan = plan;
+    }
+
+    static long eventHits(GeneratorSettings settings) {
+        return settings.hits() - listingHits(settings);
+    }
+
+    private static long listingHits(GeneratorSettings settings) {
+        return (long) (settings.hits() * LISTING_SHARE);
+    }
+
+    void write(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE endpoint_hits, hit_rollups, hit_sketch_registers RESTART IDENTITY");
+        }
+
+        SplittableRandom random = new SplittableRandom(settings.seed() + 30);
+        LocalDateTime anchor = settings.anchor();
+        long windowSeconds = settings.days() * 86_400L;
+        long written;
+        try (CopyWriter copy = new CopyWriter(connection, "endpoint_hits", "app, uri, ip, visit_time")) {
+            for (int eventId : plan.publishedIds) {
+                String uri = "/events/" + eventId;
+                long sinceSeconds = Duration.between(plan.publishedOn[eventId], anchor).toSeconds();
+                for (long i = 0; i < plan.hits[eventId]; i++) {
+                    copy.field(APP)
+                            .field(uri)
+                            .field(visitorIp(random))
+                            .field(anchor.minusSeconds(1 + random.nextLong(sinceSeconds)))
+                            .endRow();
+                }
+            }
+            for (long i = 0; i < listingHits(settings); i++) {
+                copy.field(APP)
+                        .field("/events")
+                        .field(visitorIp(random))
+                        .field(anchor.minusSeconds(1 + random.nextLong(windowSeconds)))
+                        .endRow();
+            }
+            written = copy.rows();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE endpoint_hits");
+        }
+        System.out.printf("stats: хитов %d, посетителей до %d, период %d дн. до %s%n", written, settings.visitors(),
+                settings.days(), anchor);
+        System.out.println("stats: агрегаты и скетчи очищены - перезапустите stat-service и дождитесь их пересчёта "
+                + "до начала нагрузки, иначе первые хиты помешают пересчёту агрегатов");
+    }
+
+    private String visitorIp(SplittableRandom random) {
+        int visitor = random.nextInt(settings.visitors());
+        return "10." + (visitor >>> 16 & 0xFF) + "." + (visitor >>> 8 & 0xFF) + "." + (visitor & 0xFF);
+    }
+}
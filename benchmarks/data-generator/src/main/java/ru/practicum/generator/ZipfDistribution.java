@@ -0,0 +1,37 @@
+package ru.practicum.generator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Ранг 1 выпадает чаще всего, вероятность ранга k пропорциональна 1 / k^exponent
+final class ZipfDistribution {
+    private final double[] cumulative;
+
+    ZipfDistribution(int size, double exponent) {
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    // индекс от 0 до size - 1
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int position = index >= 0 ? index : -index - 1;
+        return Math.min(position, cumulative.length - 1);
+    }
+
+    // Раскладывает total попаданий по size позициям; порядок позиций задаёт вызывающий
+    long[] allocate(long total, SplittableRandom random) {
+        long[] counts = new long[cumulative.length];
+        for (long i = 0; i < total; i++) {
+            counts[sample(random)]++;
+        }
+        return counts;
+    }
+}
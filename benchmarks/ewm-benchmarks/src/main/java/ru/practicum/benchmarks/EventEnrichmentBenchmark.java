@@ -0,0 +1,103 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.MainService;
+import ru.practicum.dto.EventShortDto;
+import ru.practicum.service.EventService;
+import ru.practicum.testing.PostgresTestDatabase;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Список событий пользователя через EventService.getEvents: выборка страницы и подсчёт заявок идут в PostgreSQL
+// (временная база PostgresTestDatabase), статистика - StubStatsClient, поэтому сеть до сервиса статистики
+// в замер не попадает. viewsCached=false отключает кэш просмотров, и каждый вызов проходит через загрузку из клиента
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventEnrichmentBenchmark {
+    private static final int USERS = 10;
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    @Param({"true", "false"})
+    private boolean viewsCached;
+
+    private PostgresTestDatabase database;
+    private ConfigurableApplicationContext context;
+    private EventService eventService;
+
+    @Setup
+    public void setUp() {
+        database = PostgresTestDatabase.start("ewm_jmh");
+        context = new SpringApplicationBuilder(MainService.class)
+                .web(WebApplicationType.NONE)
+                .initializers(applicationContext -> ((GenericApplicationContext) applicationContext)
+                        .registerBean(StubStatsClient.class, StubStatsClient::new,
+                                definition -> definition.setPrimary(true)))
+                .run("--spring.datasource.url=" + database.getUrl(),
+                        "--spring.datasource.username=" + database.getUsername(),
+                        "--spring.datasource.password=" + database.getPassword(),
+                        "--ewm.views-cache.ttl=" + (viewsCached ? "30s" : "0s"),
+                        "--ewm.views-sync.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+
+        seed(context.getBean(JdbcTemplate.class));
+        eventService = context.getBean(EventService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public List<EventShortDto> getEvents() {
+        return eventService.getEvents(1L, 0, pageSize);
+    }
+
+    // У каждого из пользователей по pageSize событий, на каждое событие три заявки, две из них подтверждены
+    private void seed(JdbcTemplate jdbcTemplate) {
+        int events = pageSize * USERS;
+        jdbcTemplate.update("INSERT INTO users (name, email) " +
+                "SELECT 'Организатор ' || i, 'user' || i || '@example.com' FROM generate_series(1, ?) i", USERS);
+        jdbcTemplate.execute("INSERT INTO categories (name) " +
+                "SELECT 'Категория ' || i FROM generate_series(1, 10) i");
+        jdbcTemplate.update("INSERT INTO events (title, annotation, description, event_date, paid, " +
+                "participant_limit, request_moderation, state, created_on, published_on, initiator_id, " +
+                "category_id, confirmed_requests, views) " +
+                "SELECT 'Событие ' || i, " +
+                "repeat('Сплав по реке с ночёвкой в палатках, инструктор и снаряжение включены. ', 3), " +
+                "repeat('Подробное описание маршрута, точки сбора и списка вещей. ', 20), " +
+                "now() + (i % 30) * INTERVAL '1 day', i % 2 = 0, 100, true, 'PUBLISHED', " +
+                "now() - INTERVAL '10 days', now() - INTERVAL '5 days', 1 + (i - 1) % ?, 1 + i % 10, 0, 0 " +
+                "FROM generate_series(1, ?) i", USERS, events);
+        jdbcTemplate.update("INSERT INTO requests (created, event_id, requester_id, status) " +
+                "SELECT now(), e, 1 + (e + r) % ?, CASE WHEN r < 3 THEN 'CONFIRMED' ELSE 'PENDING' END " +
+                "FROM generate_series(1, ?) e, generate_series(1, 3) r", USERS, events);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
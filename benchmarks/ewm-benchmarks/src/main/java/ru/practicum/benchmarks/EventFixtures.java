@@ -0,0 +1,75 @@
+package ru.practicum.benchmarks;
+
+import ru.practicum.dto.CategoryDto;
+import ru.practicum.dto.EventShortDto;
+import ru.practicum.dto.EventShortView;
+import ru.practicum.dto.UserShortDto;
+import ru.practicum.enums.EventState;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.Location;
+import ru.practicum.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+// События с заполненными полями и длиной текстов, близкой к реальным
+final class EventFixtures {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 1, 12, 0);
+    private static final String ANNOTATION = "Сплав по реке с ночёвкой в палатках, инструктор и снаряжение включены. ".repeat(3);
+    private static final String DESCRIPTION = "Подробное описание маршрута, точки сбора и списка вещей. ".repeat(20);
+
+    private EventFixtures() {
+    }
+
+    static Event event(long id) {
+        Location location = new Location();
+        location.setId(id);
+        location.setLat(55.75f);
+        location.setLon(37.62f);
+
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Событие " + id);
+        event.setAnnotation(ANNOTATION);
+        event.setDescription(DESCRIPTION);
+        event.setEventDate(NOW.plusDays(id % 30));
+        event.setCreatedOn(NOW.minusDays(10));
+        event.setPublishedOn(NOW.minusDays(5));
+        event.setPaid(id % 2 == 0);
+        event.setParticipantLimit(100);
+        event.setRequestModeration(true);
+        event.setState(EventState.PUBLISHED);
+        event.setConfirmedRequests((int) (id % 100));
+        event.setViews((int) (id * 7 % 1000));
+        event.setLocation(location);
+        event.setInitiator(new User(id % 50, "Организатор " + id % 50, "user" + id % 50 + "@example.com"));
+        event.setCategory(new Category(id % 10, "Категория " + id % 10));
+        return event;
+    }
+
+    static EventShortView shortView(long id) {
+        return new EventShortView(id, "Событие " + id, ANNOTATION, NOW.plusDays(id % 30), id % 2 == 0,
+                (int) (id * 7 % 1000), (int) (id % 100), NOW.minusDays(5), id % 10, "Категория " + id % 10,
+                id % 50, "Организатор " + id % 50);
+    }
+
+    static List<EventShortDto> shortDtos(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> {
+                    EventShortDto dto = new EventShortDto();
+                    dto.setId(id);
+                    dto.setTitle("Событие " + id);
+                    dto.setAnnotation(ANNOTATION);
+                    dto.setEventDate("2026-10-01 12:00:00");
+                    dto.setPaid(id % 2 == 0);
+                    dto.setInitiator(new UserShortDto(id % 50, "Организатор " + id % 50));
+                    dto.setCategory(new CategoryDto(id % 10, "Категория " + id % 10));
+                    dto.setViews((int) (id * 7 % 1000));
+                    dto.setConfirmedRequests((int) (id % 100));
+                    return dto;
+                })
+                .toList();
+    }
+}
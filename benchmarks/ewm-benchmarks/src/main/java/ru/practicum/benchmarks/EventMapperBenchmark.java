@@ -0,0 +1,56 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.dto.EventFullDto;
+import ru.practicum.dto.EventShortDto;
+import ru.practicum.dto.EventShortView;
+import ru.practicum.mapper.CategoryMapperImpl;
+import ru.practicum.mapper.EventMapper;
+import ru.practicum.mapper.UserMapperImpl;
+import ru.practicum.model.Event;
+
+import java.util.concurrent.TimeUnit;
+
+// Маппинг одного события: выполняется для каждой строки любого списка событий
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventMapperBenchmark {
+    private EventMapper eventMapper;
+    private Event event;
+    private EventShortView shortView;
+
+    @Setup
+    public void setUp() {
+        eventMapper = new EventMapper(new UserMapperImpl(), new CategoryMapperImpl());
+        event = EventFixtures.event(42);
+        shortView = EventFixtures.shortView(42);
+    }
+
+    @Benchmark
+    public EventFullDto toFullDto() {
+        return eventMapper.toFullDto(event);
+    }
+
+    @Benchmark
+    public EventShortDto toShortDto() {
+        return eventMapper.toShortDto(event);
+    }
+
+    @Benchmark
+    public EventShortDto toShortDtoFromView() {
+        return eventMapper.toShortDto(shortView);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ru.practicum.Client;
+import ru.practicum.dto.dto.ViewStatsDto;
+
+import java.util.List;
+
+// Клиент статистики без сети: отвечает сразу, поэтому в замер попадает только обработка на стороне ewm
+class StubStatsClient extends Client {
+
+    StubStatsClient() {
+        super(null, new SimpleMeterRegistry());
+    }
+
+    @Override
+    public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique) {
+        return uris.stream()
+                .map(uri -> new ViewStatsDto("ewm-main-service", uri, (long) uri.length() * 31))
+                .toList();
+    }
+}
@@ -0,0 +1,272 @@
+package ru.practicum.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Нагрузочный тест обоих сервисов с заданной интенсивностью по каждому эндпоинту.
+// Запросы отправляются по расписанию независимо от ответов (открытая модель), задержка считается
+// от запланированного момента отправки, поэтому очередь перед перегруженным сервисом попадает в p99 и max.
+// Без --ewm и --stats тест сам поднимает LocalStand: временные базы, генератор данных и оба сервиса,
+// и останавливает их после замера. Объёмы генератора задаются --data (например, events:20000,hits:1000000),
+// фоновая синхронизация просмотров ewm, которая тоже нагружает статистику, отключается --views-sync=false.
+// С --ewm и --stats тест идёт против уже запущенных сервисов, базы которых заполнены генератором.
+// Сборка: mvn -P benchmarks package -DskipTests, запуск из корня репозитория:
+//   java -jar benchmarks/load-test/target/load-test.jar [--ewm=http://localhost:8080 --stats=http://localhost:9090]
+//        [--rps=events:20,event:50,compilations:10,hit:100,stats:20] [--duration=60] [--warmup=10] [--seed=42]
+//        [--data=events:100000,hits:5000000] [--views-sync=true]
+// События для /events/{id}, /hit и /stats берутся из первых страниц GET /events?sort=VIEWS
+// и выбираются с перекосом в сторону самых просматриваемых.
+public class LoadTest {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern EVENT_ID = Pattern.compile("\\{\"id\":(\\d+),\"annotation\"");
+    private static final String[] SEARCH_WORDS = {"концерт", "выставка", "лекция", "джаз", "экскурсия"};
+
+    record Endpoint(String name, double rps, int expectedStatus, Function<SplittableRandom, HttpRequest> request) {
+    }
+
+    // Задержки в наносекундах; пишут потоки запросов, читает только итоговый отчёт
+    static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void record(long latency, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        if (options.containsKey("ewm") || options.containsKey("stats")) {
+            measure(options, options.getOrDefault("ewm", "http://localhost:8080"),
+                    options.getOrDefault("stats", "http://localhost:9090"));
+            return;
+        }
+
+        List<String> generatorArgs = new ArrayList<>(List.of("--seed=" + options.getOrDefault("seed", "42")));
+        for (String size : options.getOrDefault("data", "").split(",")) {
+            if (!size.isBlank()) {
+                generatorArgs.add("--" + size.replace(':', '='));
+            }
+        }
+        List<String> ewmArgs = List.of("--ewm.views-sync.enabled=" + options.getOrDefault("views-sync", "true"));
+        try (LocalStand stand = LocalStand.start(generatorArgs, ewmArgs)) {
+            measure(options, stand.ewmUrl(), stand.statsUrl());
+        }
+    }
+
+    private static void measure(Map<String, String> options, String ewm, String stats) throws Exception {
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Map<String, Double> rates = new HashMap<>();
+        for (String rate : options.getOrDefault("rps", "events:20,event:50,compilations:10,hit:100,stats:20").split(",")) {
+            String[] parts = rate.split(":");
+            rates.put(parts[0], Double.parseDouble(parts[1]));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<Long> popular = popularEvents(client, ewm);
+        if (popular.isEmpty()) {
+            throw new IllegalStateException("Нет опубликованных событий, сначала заполните базу генератором");
+        }
+        double[] popularity = zipf(popular.size(), 1.1);
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        addIfEnabled(endpoints, rates, "events", 200, random -> get(ewm + "/events?size=10&from=" + 10 * random.nextInt(20)
+                + "&sort=" + (random.nextBoolean() ? "EVENT_DATE" : "VIEWS")
+                + (random.nextInt(4) == 0 ? "&text=" + encode(SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)]) : "")));
+        addIfEnabled(endpoints, rates, "event", 200,
+                random -> get(ewm + "/events/" + pick(popular, popularity, random)));
+        addIfEnabled(endpoints, rates, "compilations", 200, random -> get(ewm + "/compilations?size=10&from="
+                + 10 * random.nextInt(10) + (random.nextInt(3) == 0 ? "&pinned=true" : "")));
+        addIfEnabled(endpoints, rates, "hit", 201, random -> HttpRequest.newBuilder(URI.create(stats + "/hit"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"app\":\"ewm-main-service\",\"uri\":\"/events/"
+                        + pick(popular, popularity, random) + "\",\"ip\":\"10.1." + random.nextInt(256) + "."
+                        + random.nextInt(256) + "\",\"timestamp\":\"" + LocalDateTime.now().format(FORMATTER) + "\"}"))
+                .build());
+        addIfEnabled(endpoints, rates, "stats", 200, random -> {
+            StringBuilder uri = new StringBuilder(stats + "/stats?start=")
+                    .append(encode(LocalDateTime.now().minusDays(30).format(FORMATTER)))
+                    .append("&end=").append(encode(LocalDateTime.now().format(FORMATTER)))
+                    .append("&unique=").append(random.nextBoolean());
+            for (int i = 1 + random.nextInt(10); i > 0; i--) {
+                uri.append("&uris=/events/").append(pick(popular, popularity, random));
+            }
+            return get(uri.toString());
+        });
+
+        System.out.printf("Прогрев %d с, замер %d с, событий в выборке %d%n", warmup.toSeconds(), duration.toSeconds(),
+                popular.size());
+        run(client, endpoints, warmup, seed, null);
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> recorders.put(endpoint.name(), new Recorder()));
+        run(client, endpoints, duration, seed + 1, recorders);
+
+        System.out.printf("%-14s %8s %8s %9s %7s %9s %9s %9s%n",
+                "эндпоинт", "цель/с", "факт/с", "запросов", "ошибок", "p50, мс", "p99, мс", "max, мс");
+        for (Endpoint endpoint : endpoints) {
+            Recorder recorder = recorders.get(endpoint.name());
+            long[] latencies = recorder.sorted();
+            System.out.printf("%-14s %8.1f %8.1f %9d %7d %9.1f %9.1f %9.1f%n", endpoint.name(), endpoint.rps(),
+                    latencies.length / (double) duration.toSeconds(), latencies.length, recorder.errors(),
+                    percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                    (latencies.length == 0 ? 0 : latencies[latencies.length - 1]) / 1e6);
+        }
+    }
+
+    // У каждого эндпоинта свой поток-планировщик, каждый запрос - в своём виртуальном потоке
+    private static void run(HttpClient client, List<Endpoint> endpoints, Duration duration, long seed,
+                            Map<String, Recorder> recorders) throws InterruptedException {
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Thread> schedulers = new ArrayList<>();
+            for (int i = 0; i < endpoints.size(); i++) {
+                Endpoint endpoint = endpoints.get(i);
+                SplittableRandom random = new SplittableRandom(seed * 31 + i);
+                Recorder recorder = recorders == null ? null : recorders.get(endpoint.name());
+                long interval = (long) (1e9 / endpoint.rps());
+                schedulers.add(Thread.ofPlatform().name("load-" + endpoint.name()).start(() -> {
+                    for (long intended = started; intended < deadline; intended += interval) {
+                        long wait = intended - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        HttpRequest request = endpoint.request().apply(random);
+                        long scheduled = intended;
+                        requests.submit(() -> {
+                            boolean ok;
+                            try {
+                                ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()
+                                        == endpoint.expectedStatus();
+                            } catch (Exception e) {
+                                ok = false;
+                            }
+                            if (recorder != null) {
+                                recorder.record(System.nanoTime() - scheduled, ok);
+                            }
+                        });
+                    }
+                }));
+            }
+            for (Thread scheduler : schedulers) {
+                scheduler.join();
+            }
+        }
+    }
+
+    private static List<Long> popularEvents(HttpClient client, String ewm) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int from = 0; from < 5000; from += 1000) {
+            HttpResponse<String> response = client.send(get(ewm + "/events?sort=VIEWS&size=1000&from=" + from),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = EVENT_ID.matcher(response.body());
+            int found = 0;
+            while (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+                found++;
+            }
+            if (found < 1000) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    private static void addIfEnabled(List<Endpoint> endpoints, Map<String, Double> rates, String name,
+                                     int expectedStatus, Function<SplittableRandom, HttpRequest> request) {
+        Double rps = rates.get(name);
+        if (rps != null && rps > 0) {
+            endpoints.add(new Endpoint(name, rps, expectedStatus, request));
+        }
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private static double[] zipf(int size, double exponent) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static long pick(List<Long> ids, double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return ids.get(Math.min(index >= 0 ? index : -index - 1, ids.size() - 1));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Аргументы задаются как --имя=значение: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,179 @@
+package ru.practicum.load;
+
+import ru.practicum.testing.PostgresTestDatabase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Стенд для нагрузочного теста: две временные базы PostgreSQL (Testcontainers или TEST_POSTGRES_URL),
+// заполненные генератором из benchmarks/data-generator, и оба сервиса из собранных exec-jar на свободных портах.
+// Сервис считается готовым, когда readiness-проба отвечает UP: у stat-service это происходит после пересчёта
+// агрегатов и скетчей по сгенерированным хитам. Логи процессов пишутся в benchmarks/load-test/target/stand
+class LocalStand implements AutoCloseable {
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(10);
+    private static final Path LOGS = Path.of("benchmarks", "load-test", "target", "stand");
+
+    private final List<PostgresTestDatabase> databases = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+    private String ewmUrl;
+    private String statsUrl;
+
+    static LocalStand start(List<String> generatorArgs, List<String> ewmArgs) throws Exception {
+        LocalStand stand = new LocalStand();
+        try {
+            stand.startAll(generatorArgs, ewmArgs);
+            return stand;
+        } catch (Exception e) {
+            stand.close();
+            throw e;
+        }
+    }
+
+    String ewmUrl() {
+        return ewmUrl;
+    }
+
+    String statsUrl() {
+        return statsUrl;
+    }
+
+    private void startAll(List<String> generatorArgs, List<String> ewmArgs) throws Exception {
+        Files.createDirectories(LOGS);
+        PostgresTestDatabase ewmDatabase = database("ewm_load");
+        PostgresTestDatabase statsDatabase = database("stats_load");
+
+        System.out.println("Заполнение баз генератором, лог: " + LOGS.resolve("data-generator.log"));
+        List<String> generator = new ArrayList<>(List.of(java(), "-jar",
+                jar(Path.of("benchmarks", "data-generator", "target"), "data-generator.jar")));
+        generator.addAll(generatorArgs);
+        Process process = process(generator, "data-generator", Map.of(
+                "EWM_DB_URL", ewmDatabase.getUrl(),
+                "EWM_DB_USER", ewmDatabase.getUsername(),
+                "EWM_DB_PASSWORD", ewmDatabase.getPassword(),
+                "STATS_DB_URL", statsDatabase.getUrl(),
+                "STATS_DB_USER", statsDatabase.getUsername(),
+                "STATS_DB_PASSWORD", statsDatabase.getPassword()));
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Генератор данных завершился с кодом " + process.exitValue());
+        }
+
+        int statsPort = freePort();
+        statsUrl = "http://localhost:" + statsPort;
+        service("stat-service", Path.of("stats-server", "stat-service", "target"), statsDatabase, statsPort,
+                List.of());
+
+        List<String> ewmOptions = new ArrayList<>(List.of("--stats.server.url=" + statsUrl));
+        ewmOptions.addAll(ewmArgs);
+        int ewmPort = freePort();
+        ewmUrl = "http://localhost:" + ewmPort;
+        service("ewm-service", Path.of("ewm-service", "target"), ewmDatabase, ewmPort, ewmOptions);
+
+        awaitReady("stat-service", statsUrl);
+        awaitReady("ewm-service", ewmUrl);
+    }
+
+    private PostgresTestDatabase database(String name) {
+        PostgresTestDatabase database = PostgresTestDatabase.start(name);
+        databases.add(database);
+        return database;
+    }
+
+    private void service(String name, Path target, PostgresTestDatabase database, int port, List<String> options)
+            throws IOException {
+        List<String> command = new ArrayList<>(List.of(java(), "-jar", jar(target, name + "-*-exec.jar"),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + database.getUrl(),
+                "--spring.datasource.username=" + database.getUsername(),
+                "--spring.datasource.password=" + database.getPassword(),
+                "--spring.jpa.show-sql=false",
+                "--management.endpoint.health.probes.enabled=true"));
+        command.addAll(options);
+        System.out.println("Запуск " + name + " на порту " + port + ", лог: " + LOGS.resolve(name + ".log"));
+        process(command, name, Map.of());
+    }
+
+    private Process process(List<String> command, String name, Map<String, String> environment) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(LOGS.resolve(name + ".log").toFile());
+        builder.environment().putAll(environment);
+        Process process = builder.start();
+        processes.add(process);
+        return process;
+    }
+
+    private void awaitReady(String name, String url) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (processes.stream().anyMatch(process -> !process.isAlive() && process.exitValue() != 0)) {
+                throw new IllegalStateException(name + " завершился при запуске, см. логи в " + LOGS);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // порт ещё не открыт
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+        throw new IllegalStateException(name + " не стал готов за " + START_TIMEOUT.toMinutes() + " мин");
+    }
+
+    @Override
+    public void close() {
+        for (Process process : processes.reversed()) {
+            process.destroy();
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        databases.forEach(PostgresTestDatabase::close);
+    }
+
+    private static String jar(Path directory, String pattern) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileSystem().getPathMatcher("glob:" + pattern)
+                            .matches(file.getFileName()))
+                    .findFirst()
+                    .map(Path::toString)
+                    .orElseThrow(() -> new IllegalStateException("Не найден " + pattern + " в " + directory
+                            + ", сначала соберите проект: mvn -P benchmarks package -DskipTests"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не найден " + directory + ", тест запускается из корня репозитория", e);
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.StatService;
+import ru.practicum.dto.dto.ViewStatsDto;
+import ru.practicum.service.HitPartitionService;
+import ru.practicum.service.RollupService;
+import ru.practicum.service.StatsService;
+import ru.practicum.service.UniqueSketchService;
+import ru.practicum.testing.PostgresTestDatabase;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// StatsService.getStats на PostgreSQL с миллионами хитов. База временная (PostgresTestDatabase): схема создаётся
+// миграциями, данные засеваются до прогрева и удаляются вместе с базой после прогона
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StatsServiceBenchmark {
+    private static final int EVENTS = 10_000;
+    private static final int VISITORS = 200_000;
+    private static final int DAYS = 90;
+
+    @Param({"2000000"})
+    private long hits;
+
+    private PostgresTestDatabase database;
+    private ConfigurableApplicationContext context;
+    private StatsService statsService;
+    private String start;
+    private String end;
+    private List<String> uris;
+
+    @Setup
+    public void setUp() {
+        database = PostgresTestDatabase.start("stats_jmh");
+        context = new SpringApplicationBuilder(StatService.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + database.getUrl(),
+                        "--spring.datasource.username=" + database.getUsername(),
+                        "--spring.datasource.password=" + database.getPassword(),
+                        "--spring.jpa.show-sql=false",
+                        "--stats.hll.enabled=true",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+
+        seed(context.getBean(JdbcTemplate.class));
+        statsService = context.getBean(StatsService.class);
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime now = LocalDateTime.now();
+        start = now.minusDays(30).format(formatter);
+        end = now.format(formatter);
+        // самые посещаемые события: на них приходится основная часть хитов
+        uris = IntStream.rangeClosed(1, 10)
+                .mapToObj(id -> "/events/" + id)
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> statsByUris() {
+        return statsService.getStats(start, end, uris, false, null);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> uniqueStatsByUris() {
+        return statsService.getStats(start, end, uris, true, false);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> approximateUniqueStatsByUris() {
+        return statsService.getStats(start, end, uris, true, true);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> statsForAllEvents() {
+        return statsService.getStats(start, end, List.of("/events"), false, null);
+    }
+
+    // Хиты раскладываются по секциям, агрегаты и скетчи пересчитываются так же, как при запуске сервиса на старых данных
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("SELECT setseed(0.42)");
+        // квадрат случайного числа смещает хиты к событиям с маленькими id
+        jdbcTemplate.update("INSERT INTO endpoint_hits (app, uri, ip, visit_time) " +
+                        "SELECT 'ewm-main-service', " +
+                        "'/events/' || (1 + floor(power(random(), 2) * ?))::int, " +
+                        "'10.' || (v / 65536) || '.' || (v / 256 % 256) || '.' || (v % 256), " +
+                        "now() - random() * make_interval(days => ?) " +
+                        "FROM (SELECT (random() * ?)::int AS v FROM generate_series(1, ?)) visitors",
+                EVENTS, DAYS, VISITORS, hits);
+
+        context.getBean(HitPartitionService.class).maintain();
+        context.getBean(RollupService.class).rebuild();
+        context.getBean(UniqueSketchService.class).rebuild();
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
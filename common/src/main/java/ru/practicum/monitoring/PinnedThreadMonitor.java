@@ -0,0 +1,60 @@
+package ru.practicum.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+// В режиме виртуальных потоков сообщает о блокировках внутри synchronized и native-кода:
+// такой поток держит поток-носитель, и при массовых закреплениях пул носителей исчерпывается.
+// Сервисы регистрируют монитор бином с initMethod start и destroyMethod stop и своим порогом
+@Slf4j
+@RequiredArgsConstructor
+public class PinnedThreadMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+
+    private RecordingStream stream;
+
+    public void start() {
+        Counter pinned = meterRegistry.counter("jvm.threads.virtual.pinned");
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            log.warn("Виртуальный поток закреплён за носителем на {} мс:\n{}",
+                    event.getDuration().toMillis(), topFrames(event));
+        });
+        stream.startAsync();
+        log.info("Включено отслеживание закреплённых виртуальных потоков дольше {} мс", threshold.toMillis());
+    }
+
+    public void stop() {
+        stream.close();
+    }
+
+    private String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\tстек недоступен";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(this::formatFrame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private String formatFrame(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -1,11 +1,28 @@
 package ru.practicum;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.monitoring.PinnedThreadMonitor;
+
+import java.time.Duration;
 
 @SpringBootApplication
+@EnableScheduling
 public class MainService {
     public static void main(String[] args) {
         SpringApplication.run(MainService.class, args);
     }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+                                            @Value("${ewm.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new PinnedThreadMonitor(meterRegistry, threshold);
+    }
 }
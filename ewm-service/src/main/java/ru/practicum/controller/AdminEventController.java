@@ -1,9 +1,11 @@
 package ru.practicum.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.EventFullDto;
+import ru.practicum.dto.EventPage;
 import ru.practicum.dto.UpdateEventAdminRequest;
 import ru.practicum.service.EventService;
 
@@ -13,6 +15,8 @@ import java.util.List;
 @RequestMapping("/admin/events")
 @RequiredArgsConstructor
 public class AdminEventController {
+    // токен следующей страницы; передаётся обратно параметром cursor
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final EventService eventService;
 
@@ -23,8 +27,15 @@ public class AdminEventController {
                                         @RequestParam(required = false) String rangeStart,
                                         @RequestParam(required = false) String rangeEnd,
                                         @RequestParam(defaultValue = "0") int from,
-                                        @RequestParam(defaultValue = "10") int size) {
-        return eventService.getEventsByAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+                                        @RequestParam(defaultValue = "10") int size,
+                                        @RequestParam(required = false) String cursor,
+                                        HttpServletResponse response) {
+        EventPage<EventFullDto> page = eventService.getEventsByAdmin(users, states, categories,
+                rangeStart, rangeEnd, from, size, cursor);
+        if (page.getNextCursor() != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
     }
 
     @PatchMapping("/{eventId}")
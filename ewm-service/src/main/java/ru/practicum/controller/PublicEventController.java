@@ -1,10 +1,12 @@
 package ru.practicum.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.Client;
 import ru.practicum.dto.EventFullDto;
+import ru.practicum.dto.EventPage;
 import ru.practicum.dto.EventShortDto;
 import ru.practicum.service.EventService;
 
@@ -28,13 +30,19 @@ public class PublicEventController {
             @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") int from,
             @RequestParam(defaultValue = "10") int size,
-            HttpServletRequest request
+            @RequestParam(required = false) String cursor,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
 
         statsClient.hit(request);
 
-        return eventService.getEventsPublic(text, categories, paid, rangeStart, rangeEnd,
-                onlyAvailable, sort, from, size, request);
+        EventPage<EventShortDto> page = eventService.getEventsPublic(text, categories, paid, rangeStart, rangeEnd,
+                onlyAvailable, sort, from, size, cursor, request);
+        if (page.getNextCursor() != null) {
+            response.setHeader(AdminEventController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return page.getItems();
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,8 @@
+package ru.practicum.dto;
+
+public interface CompilationEventLink {
+
+    Long getCompilationId();
+
+    Long getEventId();
+}
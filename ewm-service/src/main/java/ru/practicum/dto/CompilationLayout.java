@@ -0,0 +1,10 @@
+package ru.practicum.dto;
+
+import java.util.List;
+
+// Подборка без данных событий: то, что можно кэшировать надолго. События и их счётчики подставляются при чтении
+public record CompilationLayout(Long id,
+                                Boolean pinned,
+                                String title,
+                                List<Long> eventIds) {
+}
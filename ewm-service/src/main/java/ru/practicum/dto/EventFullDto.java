@@ -1,5 +1,6 @@
 package ru.practicum.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import ru.practicum.model.Location;
 import ru.practicum.enums.EventState;
@@ -22,4 +23,7 @@ public class EventFullDto {
     private CategoryDto category;
     private int views;
     private int confirmedRequests;
+    // true, если сервис статистики не ответил вовремя и views взяты из сохранённого значения
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean viewsDegraded;
 }
@@ -0,0 +1,15 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventPage<T> {
+    private List<T> items;
+    private String nextCursor; // null, если страница последняя или курсор для этой сортировки не поддерживается
+}
@@ -0,0 +1,10 @@
+package ru.practicum.dto;
+
+import java.time.LocalDateTime;
+
+public interface EventPublication {
+
+    Long getId();
+
+    LocalDateTime getPublishedOn();
+}
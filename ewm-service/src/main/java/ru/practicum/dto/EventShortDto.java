@@ -1,5 +1,6 @@
 package ru.practicum.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
@@ -13,4 +14,6 @@ public class EventShortDto {
     private Boolean paid;
     private String title;
     private int views;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean viewsDegraded;
 }
@@ -0,0 +1,18 @@
+package ru.practicum.dto;
+
+import java.time.LocalDateTime;
+
+// Строка списка событий: только поля EventShortDto и то, что нужно для курсора и просмотров
+public record EventShortView(Long id,
+                             String title,
+                             String annotation,
+                             LocalDateTime eventDate,
+                             Boolean paid,
+                             int views,
+                             int confirmedRequests,
+                             LocalDateTime publishedOn,
+                             Long categoryId,
+                             String categoryName,
+                             Long initiatorId,
+                             String initiatorName) {
+}
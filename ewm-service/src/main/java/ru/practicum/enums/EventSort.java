@@ -0,0 +1,7 @@
+package ru.practicum.enums;
+
+public enum EventSort {
+    EVENT_DATE, // по дате события, затем по id
+    VIEWS, // по убыванию просмотров, затем по id
+    ID // по id, порядок админских выборок
+}
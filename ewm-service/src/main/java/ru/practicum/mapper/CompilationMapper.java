@@ -1,21 +1,23 @@
 package ru.practicum.mapper;
 
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 import org.springframework.stereotype.Component;
 import ru.practicum.dto.CompilationDto;
-import ru.practicum.model.Compilation;
+import ru.practicum.dto.CompilationLayout;
+import ru.practicum.dto.EventShortDto;
 
 import java.util.List;
 import org.mapstruct.Mapper;
 
 
 @Component
-@Mapper(componentModel = "spring", uses = {EventMapper.class})
+@Mapper(componentModel = "spring")
 public interface CompilationMapper {
 
     CompilationMapper INSTANCE = Mappers.getMapper(CompilationMapper.class);
 
-    CompilationDto toDto(Compilation compilation);
-
-    List<CompilationDto> toDtoList(List<Compilation> compilations);
+    // события подборки собираются пачкой в CompilationService
+    @Mapping(target = "events", source = "events")
+    CompilationDto toDto(CompilationLayout compilation, List<EventShortDto> events);
 }
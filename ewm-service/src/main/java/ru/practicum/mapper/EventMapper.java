@@ -2,9 +2,12 @@ package ru.practicum.mapper;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.dto.CategoryDto;
 import ru.practicum.dto.EventFullDto;
 import ru.practicum.dto.EventShortDto;
+import ru.practicum.dto.EventShortView;
 import ru.practicum.dto.NewEventDto;
+import ru.practicum.dto.UserShortDto;
 import ru.practicum.model.Category;
 import ru.practicum.model.Event;
 import ru.practicum.model.Location;
@@ -68,6 +71,20 @@ public class EventMapper {
         return dto;
     }
 
+    public EventShortDto toShortDto(EventShortView event) {
+        EventShortDto dto = new EventShortDto();
+        dto.setId(event.id());
+        dto.setTitle(event.title());
+        dto.setAnnotation(event.annotation());
+        dto.setEventDate(event.eventDate().format(formatter));
+        dto.setPaid(event.paid());
+        dto.setInitiator(new UserShortDto(event.initiatorId(), event.initiatorName()));
+        dto.setCategory(new CategoryDto(event.categoryId(), event.categoryName()));
+        dto.setViews(event.views());
+        dto.setConfirmedRequests(event.confirmedRequests());
+        return dto;
+    }
+
     public Event toEntity(NewEventDto newEventDto, Category category, LocalDateTime eventDate) {
         Event event = new Event();
         event.setAnnotation(newEventDto.getAnnotation());
@@ -12,8 +12,16 @@ import java.time.LocalDateTime;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
+@NamedEntityGraph(name = Event.LISTING_GRAPH, attributeNodes = {
+        @NamedAttributeNode("initiator"),
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("location")
+})
 @Table(name = "events")
 public class Event {
+    // связи, которые маппер читает для каждой строки списка, подгружаем тем же запросом
+    public static final String LISTING_GRAPH = "Event.listing";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -54,8 +62,11 @@ public class Event {
     @Column(name = "published_on")
     private LocalDateTime publishedOn;
 
-    @Column(name = "confirmed_requests")
+    // пишется только условными UPDATE из RequestAdmissionRepository под блокировкой строки события
+    @Column(name = "confirmed_requests", updatable = false)
     private int confirmedRequests;
 
+    // пишется только фоновой синхронизацией с сервисом статистики
+    @Column(updatable = false)
     private int views;
 }
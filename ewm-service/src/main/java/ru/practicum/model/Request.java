@@ -7,7 +7,9 @@ import ru.practicum.enums.RequestStatus;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "requests")
+@Table(name = "requests", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_requests_event_requester", columnNames = {"event_id", "requester_id"})
+})
 @Data
 public class Request {
 
@@ -17,11 +19,11 @@ public class Request {
 
     private LocalDateTime created;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requester_id", nullable = false)
     private User requester;
 
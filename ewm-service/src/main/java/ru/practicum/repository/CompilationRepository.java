@@ -2,9 +2,13 @@ package ru.practicum.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.dto.CompilationEventLink;
 import ru.practicum.model.Compilation;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +16,10 @@ public interface CompilationRepository extends JpaRepository<Compilation, Long>
     List<Compilation> findAllByPinned(Boolean pinned, Pageable pageable);
 
     boolean existsByTitle(String title);
+
+    @Query("SELECT c.id AS compilationId, e.id AS eventId " +
+            "FROM Compilation c JOIN c.events e " +
+            "WHERE c.id IN :ids " +
+            "ORDER BY c.id, e.id")
+    List<CompilationEventLink> findEventLinks(@Param("ids") Collection<Long> compilationIds);
 }
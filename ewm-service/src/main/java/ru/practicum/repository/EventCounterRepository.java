@@ -0,0 +1,28 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class EventCounterRepository {
+    private static final String UPDATE_VIEWS =
+            "UPDATE events SET views = :views WHERE id = :id AND views <> :views";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Пишем только изменившиеся значения, чтобы не плодить лишние версии строк
+    public void updateViews(Map<Long, Long> views) {
+        List<MapSqlParameterSource> params = new ArrayList<>(views.size());
+        views.forEach((id, count) -> params.add(new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("views", count.intValue())));
+        jdbcTemplate.batchUpdate(UPDATE_VIEWS, params.toArray(new MapSqlParameterSource[0]));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.dto.EventShortView;
+import ru.practicum.enums.EventSort;
+import ru.practicum.exception.BadRequestException;
+import ru.practicum.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Курсор для постраничного вывода событий по ключу (значение сортировки, id) вместо OFFSET.
+// Для клиента токен непрозрачен: base64url от "сортировка|значение|id"
+public class EventCursor {
+    private static final String SEPARATOR = "|";
+
+    private final EventSort sort;
+    private final String value;
+    private final long id;
+
+    private EventCursor(EventSort sort, String value, long id) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static Sort sortOf(EventSort sort) {
+        return switch (sort) {
+            case EVENT_DATE -> Sort.by(Sort.Direction.ASC, "eventDate").and(Sort.by(Sort.Direction.ASC, "id"));
+            case VIEWS -> Sort.by(Sort.Direction.DESC, "views").and(Sort.by(Sort.Direction.ASC, "id"));
+            case ID -> Sort.by(Sort.Direction.ASC, "id");
+        };
+    }
+
+    public static String next(EventSort sort, Event last) {
+        return next(sort, last.getEventDate(), last.getViews(), last.getId());
+    }
+
+    public static String next(EventSort sort, EventShortView last) {
+        return next(sort, last.eventDate(), last.views(), last.id());
+    }
+
+    private static String next(EventSort sort, LocalDateTime eventDate, int views, long id) {
+        String value = switch (sort) {
+            case EVENT_DATE -> eventDate.toString();
+            case VIEWS -> String.valueOf(views);
+            case ID -> "";
+        };
+        String raw = sort.name() + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static EventCursor decode(String token, EventSort expected) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            EventSort sort = EventSort.valueOf(parts[0]);
+            if (parts.length != 3 || sort != expected) {
+                throw new BadRequestException("Курсор не соответствует запрошенной сортировке");
+            }
+            EventCursor cursor = new EventCursor(sort, parts[1], Long.parseLong(parts[2]));
+            cursor.after(); // проверяем значение ключа до выполнения запроса
+            return cursor;
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeException e) {
+            throw new BadRequestException("Некорректный курсор: " + token);
+        }
+    }
+
+    // Строки, идущие в выбранном порядке строго после ключа курсора
+    public Specification<Event> after() {
+        return switch (sort) {
+            case EVENT_DATE -> {
+                LocalDateTime eventDate = LocalDateTime.parse(value);
+                yield (root, query, cb) -> cb.or(
+                        cb.greaterThan(root.get("eventDate"), eventDate),
+                        cb.and(cb.equal(root.get("eventDate"), eventDate), cb.greaterThan(root.get("id"), id)));
+            }
+            case VIEWS -> {
+                int views = Integer.parseInt(value);
+                yield (root, query, cb) -> cb.or(
+                        cb.lessThan(root.get("views"), views),
+                        cb.and(cb.equal(root.get("views"), views), cb.greaterThan(root.get("id"), id)));
+            }
+            case ID -> (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+        };
+    }
+}
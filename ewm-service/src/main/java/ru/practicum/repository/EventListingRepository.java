@@ -0,0 +1,13 @@
+package ru.practicum.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.dto.EventShortView;
+import ru.practicum.model.Event;
+
+import java.util.List;
+
+public interface EventListingRepository {
+
+    List<EventShortView> findShortViews(Specification<Event> spec, Sort sort, long offset, int limit);
+}
@@ -0,0 +1,64 @@
+package ru.practicum.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.EventShortView;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.User;
+
+import java.util.List;
+
+// Список событий без загрузки сущностей: выбираются только колонки краткого DTO,
+// поэтому длинное описание не читается, а Hibernate не держит снимки для dirty checking
+public class EventListingRepositoryImpl implements EventListingRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EventShortView> findShortViews(Specification<Event> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventShortView> query = cb.createQuery(EventShortView.class);
+        Root<Event> root = query.from(Event.class);
+        Join<Event, Category> category = root.join("category");
+        Join<Event, User> initiator = root.join("initiator");
+
+        query.select(cb.construct(EventShortView.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("annotation"),
+                root.get("eventDate"),
+                root.get("paid"),
+                root.get("views"),
+                root.get("confirmedRequests"),
+                root.get("publishedOn"),
+                category.get("id"),
+                category.get("name"),
+                initiator.get("id"),
+                initiator.get("name")));
+
+        // спецификация может сама задать порядок, например по релевантности текста
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -2,19 +2,28 @@ package ru.practicum.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import ru.practicum.dto.EventPublication;
 import ru.practicum.enums.EventState;
 import ru.practicum.model.Event;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        EventListingRepository {
     boolean existsByCategoryId(Long catId);
 
-    Page<Event> findByInitiatorId(Long userId, Pageable pageable);
+    @Override
+    @EntityGraph(Event.LISTING_GRAPH)
+    Page<Event> findAll(Specification<Event> spec, Pageable pageable);
 
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long userId);
 
     Optional<Event> findByIdAndState(Long id, EventState state);
+
+    List<EventPublication> findByStateAndIdGreaterThan(EventState state, Long id, Pageable pageable);
 }
@@ -4,9 +4,11 @@ import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.enums.EventState;
 import ru.practicum.model.Event;
 
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -43,6 +45,14 @@ public class EventSpecifications {
         };
     }
 
+    public static Specification<Event> byIds(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Event> byInitiator(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("initiator").get("id"), userId);
+    }
+
     public static Specification<Event> publicEvents(String text,
                                                     List<Long> categories,
                                                     Boolean paid,
@@ -54,6 +64,7 @@ public class EventSpecifications {
 
             predicates.add(cb.equal(root.get("state"), EventState.PUBLISHED));
 
+            // lower(...) LIKE '%...%' обслуживается GIN-индексами pg_trgm, см. миграцию V2__workload_indexes
             if (text != null && !text.isBlank()) {
                 Predicate annotationPredicate = cb.like(cb.lower(root.get("annotation")), "%" + text.toLowerCase() + "%");
                 Predicate descriptionPredicate = cb.like(cb.lower(root.get("description")), "%" + text.toLowerCase() + "%");
@@ -83,4 +94,16 @@ public class EventSpecifications {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    public static Specification<Event> orderByTextRelevance(String text) {
+        return (root, query, cb) -> {
+            Expression<String> pattern = cb.literal(text.toLowerCase());
+            query.orderBy(
+                    cb.desc(cb.function("word_similarity", Double.class, pattern, cb.lower(root.get("annotation")))),
+                    cb.desc(cb.function("word_similarity", Double.class, pattern, cb.lower(root.get("description")))),
+                    cb.asc(root.get("eventDate")),
+                    cb.asc(root.get("id")));
+            return null;
+        };
+    }
 }
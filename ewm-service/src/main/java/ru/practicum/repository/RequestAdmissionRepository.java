@@ -0,0 +1,137 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ParticipationRequestDto;
+import ru.practicum.enums.EventState;
+import ru.practicum.enums.RequestStatus;
+import ru.practicum.mapper.RequestMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Запись на событие без чтения счётчика в приложении: проверка лимита и инкремент выполняются
+// одним UPDATE под блокировкой строки события, повторная заявка отсекается уникальным ключом
+@Repository
+@RequiredArgsConstructor
+public class RequestAdmissionRepository {
+    private static final String ADMIT =
+            "UPDATE events SET confirmed_requests = confirmed_requests + " +
+            "CASE WHEN request_moderation AND participant_limit > 0 THEN 0 ELSE 1 END " +
+            "WHERE id = :eventId AND state = :published AND initiator_id <> :userId " +
+            "AND (participant_limit = 0 OR confirmed_requests < participant_limit) " +
+            "AND EXISTS (SELECT 1 FROM users WHERE id = :userId) " +
+            "RETURNING request_moderation AND participant_limit > 0";
+
+    private static final String INSERT_REQUEST =
+            "INSERT INTO requests (created, event_id, requester_id, status) " +
+            "VALUES (:created, :eventId, :userId, :status) " +
+            "ON CONFLICT (event_id, requester_id) DO NOTHING RETURNING id";
+
+    private static final String RELEASE =
+            "UPDATE events SET confirmed_requests = confirmed_requests - 1 " +
+            "WHERE id = :eventId AND confirmed_requests > 0";
+
+    private static final String HAS_NOT_PENDING =
+            "SELECT EXISTS (SELECT 1 FROM requests WHERE id IN (:ids) AND status <> :pending)";
+
+    // Подтверждаем заявки в порядке подачи, но не больше свободных мест; событие блокируется на время транзакции
+    private static final String CONFIRM_PENDING =
+            "WITH ev AS (" +
+            "  SELECT GREATEST(participant_limit - confirmed_requests, 0) AS free FROM events WHERE id = :eventId FOR UPDATE" +
+            "), picked AS (" +
+            "  SELECT id FROM requests WHERE id IN (:ids) AND event_id = :eventId AND status = :pending" +
+            "  ORDER BY created, id LIMIT (SELECT free FROM ev)" +
+            "), confirmed AS (" +
+            "  UPDATE requests SET status = :confirmed WHERE id IN (SELECT id FROM picked)" +
+            "  RETURNING id, created, event_id, requester_id, status" +
+            "), counter AS (" +
+            "  UPDATE events SET confirmed_requests = confirmed_requests + (SELECT COUNT(*) FROM confirmed) WHERE id = :eventId" +
+            ") SELECT * FROM confirmed ORDER BY created, id";
+
+    private static final String REJECT_PENDING =
+            "UPDATE requests SET status = :rejected WHERE id IN (:ids) AND event_id = :eventId AND status = :pending " +
+            "RETURNING id, created, event_id, requester_id, status";
+
+    // При исчерпанном лимите отклоняются все ожидающие заявки события, в ответ попадают только запрошенные
+    private static final String REJECT_ALL_PENDING_IF_FULL =
+            "WITH rejected AS (" +
+            "  UPDATE requests SET status = :rejected WHERE event_id = :eventId AND status = :pending" +
+            "  AND EXISTS (SELECT 1 FROM events WHERE id = :eventId AND confirmed_requests >= participant_limit)" +
+            "  RETURNING id, created, event_id, requester_id, status" +
+            ") SELECT * FROM rejected WHERE id IN (:ids) ORDER BY created, id";
+
+    private static final RowMapper<ParticipationRequestDto> REQUEST_ROW_MAPPER = (rs, rowNum) -> {
+        ParticipationRequestDto dto = new ParticipationRequestDto();
+        dto.setId(rs.getLong("id"));
+        dto.setCreated(RequestMapper.formatDateTime(rs.getTimestamp("created").toLocalDateTime()));
+        dto.setEvent(rs.getLong("event_id"));
+        dto.setRequester(rs.getLong("requester_id"));
+        dto.setStatus(rs.getString("status"));
+        return dto;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Возвращает статус будущей заявки или пусто, если событие не принимает заявку от этого пользователя
+    public Optional<RequestStatus> admit(Long userId, Long eventId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("userId", userId)
+                .addValue("published", EventState.PUBLISHED.name());
+
+        List<Boolean> moderated = jdbcTemplate.queryForList(ADMIT, params, Boolean.class);
+        if (moderated.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(moderated.get(0) ? RequestStatus.PENDING : RequestStatus.CONFIRMED);
+    }
+
+    // Пусто, если заявка этого пользователя на событие уже есть
+    public Optional<Long> insertRequest(Long userId, Long eventId, RequestStatus status, LocalDateTime created) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("created", Timestamp.valueOf(created))
+                .addValue("eventId", eventId)
+                .addValue("userId", userId)
+                .addValue("status", status.name());
+
+        return jdbcTemplate.queryForList(INSERT_REQUEST, params, Long.class).stream().findFirst();
+    }
+
+    public void release(Long eventId) {
+        jdbcTemplate.update(RELEASE, new MapSqlParameterSource("eventId", eventId));
+    }
+
+    public boolean hasNotPending(List<Long> requestIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", requestIds)
+                .addValue("pending", RequestStatus.PENDING.name());
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_NOT_PENDING, params, Boolean.class));
+    }
+
+    public List<ParticipationRequestDto> confirmPending(Long eventId, List<Long> requestIds) {
+        return jdbcTemplate.query(CONFIRM_PENDING, statusParams(eventId, requestIds), REQUEST_ROW_MAPPER);
+    }
+
+    public List<ParticipationRequestDto> rejectPending(Long eventId, List<Long> requestIds) {
+        return jdbcTemplate.query(REJECT_PENDING, statusParams(eventId, requestIds), REQUEST_ROW_MAPPER);
+    }
+
+    public List<ParticipationRequestDto> rejectAllPendingIfFull(Long eventId, List<Long> requestIds) {
+        return jdbcTemplate.query(REJECT_ALL_PENDING_IF_FULL, statusParams(eventId, requestIds), REQUEST_ROW_MAPPER);
+    }
+
+    private MapSqlParameterSource statusParams(Long eventId, List<Long> requestIds) {
+        return new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("ids", requestIds)
+                .addValue("pending", RequestStatus.PENDING.name())
+                .addValue("confirmed", RequestStatus.CONFIRMED.name())
+                .addValue("rejected", RequestStatus.REJECTED.name());
+    }
+}
@@ -5,7 +5,6 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.dto.EventRequestCount;
-import ru.practicum.enums.RequestStatus;
 import ru.practicum.model.Request;
 
 import java.util.List;
@@ -21,8 +20,6 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     boolean existsByEventIdAndRequesterId(Long eventId, Long requesterId);
 
-    long countByEvent_IdAndStatus(Long eventId, RequestStatus status);
-
     @Query("SELECT r.event.id AS eventId, COUNT(r) AS count " +
             "FROM Request r " +
             "WHERE r.event.id IN :eventIds AND r.status = 'CONFIRMED' " +
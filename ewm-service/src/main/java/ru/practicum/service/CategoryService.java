@@ -21,6 +21,7 @@ public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
     private final CategoryMapper categoryMapper;
+    private final ReferenceDataCache referenceDataCache;
 
     public CategoryDto addCategory(NewCategoryDto dto) {
         if (categoryRepository.existsByName(dto.getName())) {
@@ -30,6 +31,7 @@ public class CategoryService {
         Category category = new Category();
         category.setName(dto.getName());
         category = categoryRepository.save(category);
+        referenceDataCache.invalidateCategories();
 
         return new CategoryDto(category.getId(), category.getName());
     }
@@ -43,6 +45,7 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        referenceDataCache.invalidateCategories();
     }
 
     public CategoryDto updateCategory(Long catId, CategoryDto categoryDto) {
@@ -56,21 +59,26 @@ public class CategoryService {
 
         category.setName(categoryDto.getName());
         categoryRepository.save(category);
+        referenceDataCache.invalidateCategories();
         categoryDto.setId(category.getId());
 
         return categoryDto;
     }
 
     public List<CategoryDto> getCategories(int from, int size) {
-        PageRequest page = PageRequest.of(from / size, size);
-        return categoryRepository.findAll(page).stream()
-                .map(categoryMapper::toDto)
-                .collect(Collectors.toList());
+        return referenceDataCache.getCategories(from, size, () -> {
+            PageRequest page = PageRequest.of(from / size, size);
+            return categoryRepository.findAll(page).stream()
+                    .map(categoryMapper::toDto)
+                    .collect(Collectors.toList());
+        });
     }
 
     public CategoryDto getCategoryById(long catId) {
-        Category category = categoryRepository.findById(catId)
-                .orElseThrow(() -> new NotFoundException("Категория с id " + catId + " не найдена"));
-        return categoryMapper.toDto(category);
+        return referenceDataCache.getCategory(catId, () -> {
+            Category category = categoryRepository.findById(catId)
+                    .orElseThrow(() -> new NotFoundException("Категория с id " + catId + " не найдена"));
+            return categoryMapper.toDto(category);
+        });
     }
 }
@@ -3,19 +3,30 @@ package ru.practicum.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.dto.CompilationDto;
+import ru.practicum.dto.CompilationEventLink;
+import ru.practicum.dto.CompilationLayout;
+import ru.practicum.dto.EventShortDto;
+import ru.practicum.dto.EventShortView;
 import ru.practicum.dto.NewCompilationDto;
 import ru.practicum.dto.UpdateCompilationRequest;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.CompilationMapper;
+import ru.practicum.mapper.EventMapper;
 import ru.practicum.model.Compilation;
 import ru.practicum.model.Event;
 import ru.practicum.repository.CompilationRepository;
 import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.EventSpecifications;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +35,9 @@ public class CompilationService {
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
+    private final EventMapper eventMapper;
+    private final EventCounters eventCounters;
+    private final ReferenceDataCache referenceDataCache;
 
     public CompilationDto saveCompilation(NewCompilationDto dto) {
         if (compilationRepository.existsByTitle(dto.getTitle())) {
@@ -40,7 +54,8 @@ public class CompilationService {
         }
 
         Compilation saved = compilationRepository.save(compilation);
-        return compilationMapper.toDto(saved);
+        referenceDataCache.invalidateCompilations();
+        return toDtos(toLayouts(List.of(saved))).get(0);
     }
 
     public void deleteCompilation(Long compId) {
@@ -48,6 +63,7 @@ public class CompilationService {
             throw new NotFoundException("Подборка с id=" + compId + " не найдена");
         }
         compilationRepository.deleteById(compId);
+        referenceDataCache.invalidateCompilations();
     }
 
     public CompilationDto updateCompilation(Long compId, UpdateCompilationRequest dto) {
@@ -69,28 +85,89 @@ public class CompilationService {
             compilation.setEvents(events);
         }
 
-        return compilationMapper.toDto(compilationRepository.save(compilation));
+        Compilation saved = compilationRepository.save(compilation);
+        referenceDataCache.invalidateCompilations();
+        return toDtos(toLayouts(List.of(saved))).get(0);
     }
 
     public List<CompilationDto> getCompilations(Boolean pinned, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+        return toDtos(referenceDataCache.getCompilations(pinned, from, size, () -> {
+            Pageable pageable = PageRequest.of(from / size, size);
+
+            List<Compilation> compilations;
+            if (pinned == null) {
+                compilations = compilationRepository.findAll(pageable).getContent();
+            } else {
+                compilations = compilationRepository.findAllByPinned(pinned, pageable);
+            }
+
+            return toLayouts(compilations);
+        }));
+    }
+
+    public CompilationDto getCompilation(Long compId) {
+        CompilationLayout layout = referenceDataCache.getCompilation(compId, () -> {
+            Compilation compilation = compilationRepository.findById(compId)
+                    .orElseThrow(() -> new NotFoundException("Подборка с id=" + compId + " не найдена"));
+
+            return toLayouts(List.of(compilation)).get(0);
+        });
+        return toDtos(List.of(layout)).get(0);
+    }
 
-        List<Compilation> compilations;
-        if (pinned == null) {
-            compilations = compilationRepository.findAll(pageable).getContent();
-        } else {
-            compilations = compilationRepository.findAllByPinned(pinned, pageable);
+    // Состав подборок: связи подборка-событие одним запросом на всю страницу
+    private List<CompilationLayout> toLayouts(List<Compilation> compilations) {
+        if (compilations.isEmpty()) {
+            return List.of();
         }
 
+        List<Long> compilationIds = compilations.stream()
+                .map(Compilation::getId)
+                .toList();
+
+        Map<Long, List<Long>> eventIdsByCompilation = compilationRepository.findEventLinks(compilationIds).stream()
+                .collect(Collectors.groupingBy(CompilationEventLink::getCompilationId,
+                        Collectors.mapping(CompilationEventLink::getEventId, Collectors.toList())));
+
         return compilations.stream()
-                .map(compilationMapper::toDto)
-                .collect(Collectors.toList());
+                .map(compilation -> new CompilationLayout(compilation.getId(), compilation.isPinned(),
+                        compilation.getTitle(),
+                        List.copyOf(eventIdsByCompilation.getOrDefault(compilation.getId(), List.of()))))
+                .toList();
     }
 
-    public CompilationDto getCompilation(Long compId) {
-        Compilation compilation = compilationRepository.findById(compId)
-                .orElseThrow(() -> new NotFoundException("Подборка с id=" + compId + " не найдена"));
+    // События подборок читаются при каждом запросе одной проекцией, затем подтверждённые заявки и просмотры
+    // пачкой на все события сразу, поэтому счётчики не устаревают вместе с кэшем состава
+    private List<CompilationDto> toDtos(List<CompilationLayout> compilations) {
+        if (compilations.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> eventIds = compilations.stream()
+                .flatMap(compilation -> compilation.eventIds().stream())
+                .collect(Collectors.toSet());
+
+        List<EventShortView> events = eventIds.isEmpty()
+                ? List.of()
+                : eventRepository.findShortViews(EventSpecifications.byIds(eventIds), Sort.by("id"), 0, eventIds.size());
 
-        return compilationMapper.toDto(compilation);
+        Map<Long, Long> confirmedRequests = eventCounters.getConfirmedRequests(new ArrayList<>(eventIds));
+        Map<Long, Long> views = eventCounters.getShortViews(events);
+
+        Map<Long, EventShortDto> eventDtos = events.stream()
+                .collect(Collectors.toMap(EventShortView::id, event -> {
+                    EventShortDto dto = eventMapper.toShortDto(event);
+                    dto.setConfirmedRequests(confirmedRequests.getOrDefault(event.id(), 0L).intValue());
+                    dto.setViews(views.getOrDefault(event.id(), 0L).intValue());
+                    return dto;
+                }));
+
+        return compilations.stream()
+                .map(compilation -> compilationMapper.toDto(compilation,
+                        compilation.eventIds().stream()
+                                .map(eventDtos::get)
+                                .filter(Objects::nonNull)
+                                .toList()))
+                .collect(Collectors.toList());
     }
 }
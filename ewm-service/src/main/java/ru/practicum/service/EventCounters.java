@@ -0,0 +1,150 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EventRequestCount;
+import ru.practicum.dto.EventShortView;
+import ru.practicum.model.Event;
+import ru.practicum.repository.RequestRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Счётчики, которые дописываются к событиям пачкой на всю страницу: подтверждённые заявки и просмотры
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventCounters {
+    private final RequestRepository requestRepository;
+    private final ViewsCache viewsCache;
+    private final ViewsLoader viewsLoader;
+    private final RequestQueryCounter queryCounter;
+
+    @Value("${ewm.event-counters.views-budget:500ms}")
+    private Duration viewsBudget;
+
+    @Value("${ewm.event-counters.pool-size:16}")
+    private int poolSize;
+
+    @Value("${ewm.event-counters.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolExecutor viewsExecutor;
+
+    // Если просмотры не уложились в бюджет, views пуст, а вызывающий отдаёт сохранённые в событии значения
+    public record Counts(Map<Long, Long> confirmedRequests, Map<Long, Long> views, boolean viewsDegraded) {
+        public int confirmedOf(Long eventId) {
+            return confirmedRequests.getOrDefault(eventId, 0L).intValue();
+        }
+
+        public int viewsOf(Long eventId, int stored) {
+            return viewsDegraded ? stored : views.getOrDefault(eventId, 0L).intValue();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("event-views-", 0).factory()
+                : Thread.ofPlatform().name("event-views-", 0).daemon().factory();
+        viewsExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        viewsExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        viewsExecutor.shutdownNow();
+    }
+
+    public Counts resolve(List<Event> events) {
+        return resolve(events.stream().map(Event::getId).toList(), () -> getViews(events));
+    }
+
+    public Counts resolveShort(List<EventShortView> events) {
+        return resolve(events.stream().map(EventShortView::id).toList(), () -> getShortViews(events));
+    }
+
+    // Заявки считаются в базе в текущем потоке, просмотры параллельно идут в сервис статистики,
+    // поэтому задержка равна большему из двух запросов, а не их сумме
+    public Counts resolve(List<Long> eventIds, Supplier<Map<Long, Long>> viewsLookup) {
+        if (eventIds.isEmpty()) {
+            return new Counts(Collections.emptyMap(), Collections.emptyMap(), false);
+        }
+
+        long deadline = System.nanoTime() + viewsBudget.toNanos();
+        CompletableFuture<Map<Long, Long>> views;
+        try {
+            views = CompletableFuture.supplyAsync(queryCounter.propagate(viewsLookup), viewsExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Очередь загрузки просмотров переполнена, отдаём сохранённые просмотры");
+            return new Counts(getConfirmedRequests(eventIds), Collections.emptyMap(), true);
+        }
+
+        Map<Long, Long> confirmed = getConfirmedRequests(eventIds);
+        try {
+            return new Counts(confirmed, views.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS), false);
+        } catch (TimeoutException e) {
+            // загрузку не отменяем: дойдя до конца, она заполнит кэш просмотров для следующих запросов
+            log.debug("Просмотры для {} событий не получены за {} мс", eventIds.size(), viewsBudget.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("Не удалось получить просмотры: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Counts(confirmed, Collections.emptyMap(), true);
+    }
+
+    public Map<Long, Long> getConfirmedRequests(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return requestRepository.countConfirmedRequests(eventIds).stream()
+                .collect(Collectors.toMap(
+                        EventRequestCount::getEventId,
+                        EventRequestCount::getCount
+                ));
+    }
+
+    public Map<Long, Long> getViews(List<Event> events) {
+        return getViews(events.stream()
+                .filter(event -> event.getPublishedOn() != null)
+                .collect(Collectors.toMap(Event::getId, Event::getPublishedOn)));
+    }
+
+    public Map<Long, Long> getShortViews(List<EventShortView> events) {
+        return getViews(events.stream()
+                .filter(event -> event.publishedOn() != null)
+                .collect(Collectors.toMap(EventShortView::id, EventShortView::publishedOn)));
+    }
+
+    private Map<Long, Long> getViews(Map<Long, LocalDateTime> publishedOn) {
+        if (publishedOn.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return viewsCache.getViews(publishedOn.keySet(), true,
+                missing -> viewsLoader.load(missing.stream().collect(Collectors.toMap(id -> id, publishedOn::get)), true));
+    }
+}
@@ -2,16 +2,14 @@ package ru.practicum.service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import ru.practicum.Client;
 import ru.practicum.dto.*;
 import ru.practicum.dto.dto.ViewStatsDto;
+import ru.practicum.enums.EventSort;
 import ru.practicum.enums.EventState;
-import ru.practicum.enums.RequestStatus;
 import ru.practicum.exception.BadRequestException;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
@@ -26,6 +24,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,15 +33,14 @@ public class EventService {
     private final EventRepository eventRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
-    private final RequestRepository requestRepository;
     private final EventMapper eventMapper;
     private final Client statClient;
+    private final EventCounters eventCounters;
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    public List<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
-                                        String rangeStart, String rangeEnd, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-
+    public EventPage<EventFullDto> getEventsByAdmin(List<Long> users, List<String> states, List<Long> categories,
+                                                    String rangeStart, String rangeEnd, int from, int size,
+                                                    String cursor) {
         List<EventState> eventStates = null;
         if (states != null) {
             try {
@@ -59,40 +57,15 @@ public class EventService {
 
         Specification<Event> spec = EventSpecifications.byAdminFilters(users, eventStates, categories, start, end);
 
-        List<Event> events = eventRepository.findAll(spec, pageable).getContent();
+        List<Event> events = findPage(spec, EventSort.ID, from, size, cursor);
 
-        Map<Long, Long> confirmedRequests = getConfirmedRequests(events);
+        EventCounters.Counts counts = eventCounters.resolve(events);
 
-        return events.stream()
-                .map(event -> {
-                    EventFullDto dto = eventMapper.toFullDto(event);
-
-                    long confirmed = confirmedRequests.getOrDefault(event.getId(), 0L);
-                    dto.setConfirmedRequests((int) confirmed);
-
-                    if (event.getPublishedOn() != null) {
-                        List<ViewStatsDto> stats = statClient.getStats(
-                                event.getPublishedOn().format(formatter),
-                                LocalDateTime.now().format(formatter),
-                                List.of("/events/" + event.getId()),
-                                true
-                        );
-
-                        long views = stats.stream()
-                                .filter(s -> ("/events/" + event.getId()).equals(s.getUri()))
-                                .findFirst()
-                                .map(ViewStatsDto::getHits)
-                                .orElse(0L);
-
-                        dto.setViews((int) views);
-                    } else {
-                        dto.setViews(0);
-                    }
-
-                    return dto;
-                })
+        List<EventFullDto> dtos = events.stream()
+                .map(event -> toFullDto(event, counts))
                 .collect(Collectors.toList());
 
+        return new EventPage<>(dtos, nextCursor(events, size, last -> EventCursor.next(EventSort.ID, last)));
     }
 
     public EventFullDto updateEventByAdmin(Long eventId, UpdateEventAdminRequest request) {
@@ -133,17 +106,8 @@ public class EventService {
         if (request.getPaid() != null) event.setPaid(request.getPaid());
         if (request.getParticipantLimit() != null) event.setParticipantLimit(request.getParticipantLimit());
         if (request.getRequestModeration() != null) event.setRequestModeration(request.getRequestModeration());
-        event.setConfirmedRequests((int)requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED));
 
-        if (event.getPublishedOn() != null) {
-            List<ViewStatsDto> stats = statClient.getStats(event.getPublishedOn().format(formatter),
-                    LocalDateTime.now().format(formatter),
-                    List.of("/events/" + eventId),
-                    true);
-            event.setViews(stats.isEmpty() ? 0 : Math.toIntExact(stats.getFirst().getHits()));
-        } else {
-            event.setViews(0);
-        }
+        event.setViews(eventCounters.getViews(List.of(event)).getOrDefault(eventId, 0L).intValue());
 
         if (request.getCategory() != null) {
             Category category = categoryRepository.findById(request.getCategory())
@@ -155,40 +119,13 @@ public class EventService {
     }
 
     public List<EventShortDto> getEvents(Long userId, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+        List<EventShortView> events = eventRepository.findShortViews(EventSpecifications.byInitiator(userId),
+                EventCursor.sortOf(EventSort.ID), from, size);
 
-        List<Event> events = eventRepository.findByInitiatorId(userId, pageable).getContent();
-
-        Map<Long, Long> confirmedRequests = getConfirmedRequests(events);
+        EventCounters.Counts counts = eventCounters.resolveShort(events);
 
         return events.stream()
-                .map(event -> {
-                    EventShortDto dto = eventMapper.toShortDto(event);
-
-                    long confirmed = confirmedRequests.getOrDefault(event.getId(), 0L);
-                    dto.setConfirmedRequests((int) confirmed);
-
-                    if (event.getPublishedOn() != null) {
-                        List<ViewStatsDto> stats = statClient.getStats(
-                                event.getPublishedOn().format(formatter),
-                                LocalDateTime.now().format(formatter),
-                                List.of("/events/" + event.getId()),
-                                true
-                        );
-
-                        long views = stats.stream()
-                                .filter(s -> ("/events/" + event.getId()).equals(s.getUri()))
-                                .findFirst()
-                                .map(ViewStatsDto::getHits)
-                                .orElse(0L);
-
-                        dto.setViews((int) views);
-                    } else {
-                        dto.setViews(0);
-                    }
-
-                    return dto;
-                })
+                .map(event -> toShortDto(event, counts))
                 .collect(Collectors.toList());
     }
 
@@ -217,19 +154,7 @@ public class EventService {
     public EventFullDto getEventByUser(Long userId, Long eventId) {
         Event event = eventRepository.findByIdAndInitiatorId(eventId, userId)
                 .orElseThrow(() -> new NotFoundException("Событие с id " + eventId + " и пользователем id " + userId + " не найдено"));
-        event.setConfirmedRequests((int)requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED));
-
-        if (event.getPublishedOn() != null) {
-            List<ViewStatsDto> stats = statClient.getStats(event.getPublishedOn().format(formatter),
-                    LocalDateTime.now().format(formatter),
-                    List.of("/events/" + eventId),
-                    true);
-            event.setViews(stats.isEmpty() ? 0 : Math.toIntExact(stats.getFirst().getHits()));
-        } else {
-            event.setViews(0);
-        }
-
-        return eventMapper.toFullDto(event);
+        return toFullDto(event, eventCounters.resolve(List.of(event)));
     }
 
     public EventFullDto updateEventByUser(Long userId, Long eventId, UpdateEventUserRequest updateDto) {
@@ -266,25 +191,23 @@ public class EventService {
                     .orElseThrow(() -> new NotFoundException("Категория с id " + updateDto.getCategory() + " не найдена"));
             event.setCategory(category);
         }
-        event.setConfirmedRequests((int)requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED));
-        if (event.getPublishedOn() != null) {
-            List<ViewStatsDto> stats = statClient.getStats(event.getPublishedOn().format(formatter),
-                    LocalDateTime.now().format(formatter),
-                    List.of("/events/" + eventId),
-                    true);
-            event.setViews(stats.isEmpty() ? 0 : Math.toIntExact(stats.getFirst().getHits()));
-        } else {
-            event.setViews(0);
-        }
+        event.setViews(eventCounters.getViews(List.of(event)).getOrDefault(eventId, 0L).intValue());
 
         return eventMapper.toFullDto(eventRepository.save(event));
     }
 
-    public List<EventShortDto> getEventsPublic(String text, List<Long> categories, Boolean paid,
-                                               String rangeStart, String rangeEnd, Boolean onlyAvailable,
-                                               String sort, int from, int size, HttpServletRequest request) {
+    public EventPage<EventShortDto> getEventsPublic(String text, List<Long> categories, Boolean paid,
+                                                    String rangeStart, String rangeEnd, Boolean onlyAvailable,
+                                                    String sort, int from, int size, String cursor,
+                                                    HttpServletRequest request) {
 
-        Pageable pageable = PageRequest.of(from / size, size, getSort(sort));
+        // без явной сортировки результаты текстового поиска упорядочиваются по релевантности;
+        // такой порядок не выражается ключом, поэтому курсор для него не поддерживается
+        boolean rankByText = sort == null && text != null && !text.isBlank();
+        if (rankByText && cursor != null) {
+            throw new BadRequestException("Курсор не поддерживается при сортировке по релевантности, укажите sort");
+        }
+        EventSort eventSort = getSort(sort);
 
         LocalDateTime start = rangeStart != null
                 ? LocalDateTime.parse(rangeStart, formatter)
@@ -301,85 +224,89 @@ public class EventService {
 
         Specification<Event> spec = EventSpecifications.publicEvents(text, categories, paid, start, end, onlyAvailable);
 
-        List<Event> events = eventRepository.findAll(spec, pageable).getContent();
-
-        Map<Long, Long> confirmedRequests = getConfirmedRequests(events);
-
-        List<ViewStatsDto> globalStats = statClient.getStats(
-                start.format(formatter),
-                LocalDateTime.now().format(formatter),
-                List.of("/events"),
-                false
-        );
+        List<EventShortView> events;
+        if (rankByText) {
+            spec = spec.and(EventSpecifications.orderByTextRelevance(text));
+            events = eventRepository.findShortViews(spec, Sort.unsorted(), from, size);
+        } else if (cursor != null) {
+            Specification<Event> afterCursor = spec.and(EventCursor.decode(cursor, eventSort).after());
+            events = eventRepository.findShortViews(afterCursor, EventCursor.sortOf(eventSort), 0, size);
+        } else {
+            events = eventRepository.findShortViews(spec, EventCursor.sortOf(eventSort), from, size);
+        }
 
-        long globalViews = globalStats.isEmpty() ? 0 : globalStats.get(0).getHits();
+        String statsStart = start.format(formatter);
+        EventCounters.Counts counts = eventCounters.resolve(events.stream().map(EventShortView::id).toList(), () -> {
+            List<ViewStatsDto> globalStats = statClient.getStats(
+                    statsStart,
+                    LocalDateTime.now().format(formatter),
+                    List.of("/events"),
+                    false
+            );
 
-        return events.stream()
-                .map(event -> {
-                    EventShortDto dto = eventMapper.toShortDto(event);
-
-                    long confirmed = confirmedRequests.getOrDefault(event.getId(), 0L);
-                    dto.setConfirmedRequests((int) confirmed);
-
-                    if (event.getPublishedOn() != null) {
-                        List<ViewStatsDto> stats = statClient.getStats(
-                                event.getPublishedOn().format(formatter),
-                                LocalDateTime.now().format(formatter),
-                                List.of("/events/" + event.getId()),
-                                true
-                        );
-
-                        long views = stats.stream()
-                                .filter(s -> ("/events/" + event.getId()).equals(s.getUri()))
-                                .findFirst()
-                                .map(ViewStatsDto::getHits)
-                                .orElse(0L);
-                        dto.setViews((int) (views + globalViews));
-                    } else {
-                        dto.setViews((int) globalViews);
-                    }
+            long globalViews = globalStats.isEmpty() ? 0 : globalStats.get(0).getHits();
+            return eventCounters.getShortViews(events).entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue() + globalViews));
+        });
 
-                    return dto;
-                })
+        List<EventShortDto> dtos = events.stream()
+                .map(event -> toShortDto(event, counts))
                 .collect(Collectors.toList());
+
+        return new EventPage<>(dtos, rankByText ? null : nextCursor(events, size, last -> EventCursor.next(eventSort, last)));
     }
 
     public EventFullDto getEventPublic(Long eventId, HttpServletRequest request) {
         Event event = eventRepository.findByIdAndState(eventId, EventState.PUBLISHED)
                 .orElseThrow(() -> new NotFoundException("Событие не опубликовано"));
 
-        event.setConfirmedRequests((int)requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED));
+        return toFullDto(event, eventCounters.resolve(List.of(event)));
+    }
 
-        if (event.getPublishedOn() != null) {
-            List<ViewStatsDto> stats = statClient.getStats(event.getPublishedOn().format(formatter),
-                    LocalDateTime.now().format(formatter),
-                    List.of("/events/" + eventId),
-                    true);
-            event.setViews(stats.isEmpty() ? 0 : Math.toIntExact(stats.getFirst().getHits()));
-        } else {
-            event.setViews(0);
+    private EventFullDto toFullDto(Event event, EventCounters.Counts counts) {
+        EventFullDto dto = eventMapper.toFullDto(event);
+        dto.setConfirmedRequests(counts.confirmedOf(event.getId()));
+        dto.setViews(counts.viewsOf(event.getId(), event.getViews()));
+        if (counts.viewsDegraded()) {
+            dto.setViewsDegraded(true);
         }
+        return dto;
+    }
 
-        return eventMapper.toFullDto(event);
+    private EventShortDto toShortDto(EventShortView event, EventCounters.Counts counts) {
+        EventShortDto dto = eventMapper.toShortDto(event);
+        dto.setConfirmedRequests(counts.confirmedOf(event.id()));
+        dto.setViews(counts.viewsOf(event.id(), event.views()));
+        if (counts.viewsDegraded()) {
+            dto.setViewsDegraded(true);
+        }
+        return dto;
     }
 
-    private Sort getSort(String sort) {
+    private EventSort getSort(String sort) {
         if ("VIEWS".equalsIgnoreCase(sort)) {
-            return Sort.by(Sort.Direction.DESC, "views");
+            return EventSort.VIEWS;
         }
-        return Sort.by(Sort.Direction.ASC, "eventDate");
+        return EventSort.EVENT_DATE;
     }
 
-    private Map<Long, Long> getConfirmedRequests(List<Event> events) {
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .toList();
+    // С курсором страница выбирается по ключу без OFFSET и без COUNT, from при этом игнорируется
+    private List<Event> findPage(Specification<Event> spec, EventSort sort, int from, int size, String cursor) {
+        Sort order = EventCursor.sortOf(sort);
+        if (cursor == null) {
+            return eventRepository.findAll(spec, OffsetPageRequest.of(from, size, order)).getContent();
+        }
 
-        return requestRepository.countConfirmedRequests(eventIds).stream()
-                .collect(Collectors.toMap(
-                        EventRequestCount::getEventId,
-                        EventRequestCount::getCount
-                ));
+        Specification<Event> afterCursor = spec.and(EventCursor.decode(cursor, sort).after());
+        // project(...) для сущности применяется как fetch graph, аналог Event.LISTING_GRAPH
+        return eventRepository.findBy(afterCursor, query -> query.project("initiator", "category", "location")
+                .sortBy(order).limit(size).all());
     }
 
+    private <T> String nextCursor(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.isEmpty() || rows.size() < size) {
+            return null;
+        }
+        return cursorOf.apply(rows.get(rows.size() - 1));
+    }
 }
@@ -0,0 +1,105 @@
+package ru.practicum.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.CategoryDto;
+import ru.practicum.dto.CompilationLayout;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Кэш редко меняющихся справочников для публичных запросов. Сбрасывается целиком после фиксации любой записи
+// через этот экземпляр сервиса; изменения с других экземпляров видны не позже чем через ttl.
+// Подборки хранятся без событий: данные событий, заявки и просмотры меняются часто и читаются заново
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ewm.reference-cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${ewm.reference-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<Long, CategoryDto> categories;
+    private Cache<PageKey, List<CategoryDto>> categoryPages;
+    private Cache<Long, CompilationLayout> compilations;
+    private Cache<PageKey, List<CompilationLayout>> compilationPages;
+
+    record PageKey(Boolean pinned, int from, int size) {
+    }
+
+    @PostConstruct
+    void init() {
+        categories = build("categories");
+        categoryPages = build("categoryPages");
+        compilations = build("compilations");
+        compilationPages = build("compilationPages");
+    }
+
+    public CategoryDto getCategory(Long catId, Supplier<CategoryDto> loader) {
+        return categories.get(catId, id -> loader.get());
+    }
+
+    public List<CategoryDto> getCategories(int from, int size, Supplier<List<CategoryDto>> loader) {
+        return categoryPages.get(new PageKey(null, from, size), key -> List.copyOf(loader.get()));
+    }
+
+    public CompilationLayout getCompilation(Long compId, Supplier<CompilationLayout> loader) {
+        return compilations.get(compId, id -> loader.get());
+    }
+
+    public List<CompilationLayout> getCompilations(Boolean pinned, int from, int size,
+                                                   Supplier<List<CompilationLayout>> loader) {
+        return compilationPages.get(new PageKey(pinned, from, size), key -> List.copyOf(loader.get()));
+    }
+
+    public void invalidateCategories() {
+        afterCommit(() -> {
+            categories.invalidateAll();
+            categoryPages.invalidateAll();
+        });
+    }
+
+    public void invalidateCompilations() {
+        afterCommit(() -> {
+            compilations.invalidateAll();
+            compilationPages.invalidateAll();
+        });
+    }
+
+    // Внутри транзакции сброс откладывается до фиксации: иначе загрузка между сбросом и коммитом
+    // прочитала бы старую строку и держала её в кэше весь ttl. После отката сбрасывать нечего
+    private void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+
+    private <K, V> Cache<K, V> build(String name) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+}
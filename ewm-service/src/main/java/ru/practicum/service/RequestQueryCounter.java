@@ -0,0 +1,100 @@
+package ru.practicum.service;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Считает SQL-запросы, загрузки сущностей и обращения к сервису статистики, выполненные для текущего HTTP-запроса.
+// Работа в других потоках учитывается, только если задача обёрнута в propagate, поэтому фоновая синхронизация
+// просмотров и пакетная отправка хитов в счёт не попадают
+@Component
+public class RequestQueryCounter implements StatementInspector, HibernatePropertiesCustomizer,
+        ClientHttpRequestInterceptor {
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    public static final class Counts {
+        private final AtomicInteger statements = new AtomicInteger();
+        private final AtomicInteger entityLoads = new AtomicInteger();
+        private final AtomicInteger statsCalls = new AtomicInteger();
+
+        public int getStatements() {
+            return statements.get();
+        }
+
+        public int getEntityLoads() {
+            return entityLoads.get();
+        }
+
+        public int getStatsCalls() {
+            return statsCalls.get();
+        }
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    public void start() {
+        CURRENT.set(new Counts());
+    }
+
+    public Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    // Задача в чужом потоке пишет в счётчики запроса, который её запустил
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        Counts counts = CURRENT.get();
+        if (counts == null) {
+            return task;
+        }
+        return () -> {
+            Counts previous = CURRENT.get();
+            CURRENT.set(counts);
+            try {
+                return task.get();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements.incrementAndGet();
+        }
+        return sql;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statsCalls.incrementAndGet();
+        }
+        return execution.execute(request, body);
+    }
+
+    void onEntityLoad() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Распределение числа SQL-запросов, загруженных сущностей и обращений к статистике на один HTTP-запрос
+// по шаблону uri: рост этих значений на эндпоинте обычно означает N+1 или ленивую загрузку при маппинге.
+// Бюджеты по эндпоинтам проверяет QueryBudgetTest
+@Component
+@RequiredArgsConstructor
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+    private final RequestQueryCounter queryCounter;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerLoadListener() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> queryCounter.onEntityLoad());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        queryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryCounter.Counts counts = queryCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+            summary("hibernate.request.statements", request.getMethod(), uri).record(counts.getStatements());
+            summary("hibernate.request.entity.loads", request.getMethod(), uri).record(counts.getEntityLoads());
+            summary("stats.client.request.calls", request.getMethod(), uri).record(counts.getStatsCalls());
+        }
+    }
+
+    private DistributionSummary summary(String name, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.dto.EventRequestStatusUpdateResult;
 import ru.practicum.dto.ParticipationRequestDto;
@@ -13,13 +14,12 @@ import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.RequestMapper;
 import ru.practicum.model.Event;
 import ru.practicum.model.Request;
-import ru.practicum.model.User;
 import ru.practicum.repository.EventRepository;
+import ru.practicum.repository.RequestAdmissionRepository;
 import ru.practicum.repository.RequestRepository;
 import ru.practicum.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,6 +29,7 @@ public class RequestService {
     private final EventRepository eventRepository;
     private final RequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final RequestAdmissionRepository requestAdmissionRepository;
     private final RequestMapper requestMapper;
 
     public List<ParticipationRequestDto> getEventRequests(Long userId, Long eventId) {
@@ -44,6 +45,9 @@ public class RequestService {
                 .collect(Collectors.toList());
     }
 
+    // Заявки меняются пакетно, без загрузки в память: одно UPDATE на подтверждение в пределах лимита
+    // и одно на отклонение остатка
+    @Transactional
     public EventRequestStatusUpdateResult changeRequestStatus(Long userId, Long eventId, EventRequestStatusUpdateRequest updateRequest) {
         Event event = eventRepository.findByIdAndInitiatorId(eventId, userId)
                 .orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено или не принадлежит пользователю с id=" + userId));
@@ -52,45 +56,30 @@ public class RequestService {
             throw new BadRequestException("Только инициатор события может управлять заявками на участие");
         }
 
-        List<Request> requests = requestRepository.findAllById(updateRequest.getRequestIds());
-
-        for (Request request : requests) {
-            if (!request.getStatus().equals(RequestStatus.PENDING)) {
-                throw new ConflictException("Менять заявки можно только в статусе PENDING");
-            }
+        List<Long> requestIds = updateRequest.getRequestIds();
+        if (requestIds == null || requestIds.isEmpty()) {
+            return new EventRequestStatusUpdateResult(List.of(), List.of());
         }
 
-        long countConfirmedRequests = requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED);
+        if (requestAdmissionRepository.hasNotPending(requestIds)) {
+            throw new ConflictException("Менять заявки можно только в статусе PENDING");
+        }
 
-        if (countConfirmedRequests >= event.getParticipantLimit() && event.getParticipantLimit() != 0) {
+        if (event.getConfirmedRequests() >= event.getParticipantLimit() && event.getParticipantLimit() != 0) {
             throw new ConflictException("Достигнут лимит участников");
         }
 
-        List<ParticipationRequestDto> confirmed = new ArrayList<>();
-        List<ParticipationRequestDto> rejected = new ArrayList<>();
-
         if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
             throw new ConflictException("Подтверждение заявок не требуется при отключённой пре-модерации или лимите = 0");
         }
 
-        for (Request request : requests) {
-            if (updateRequest.getStatus() == RequestStatus.CONFIRMED) {
-                if (countConfirmedRequests < event.getParticipantLimit() || event.getParticipantLimit() == 0) {
-                    request.setStatus(RequestStatus.CONFIRMED);
-                    event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-                    confirmed.add(requestMapper.toDto(request));
-                } else {
-                    request.setStatus(RequestStatus.REJECTED);
-                    rejected.add(requestMapper.toDto(request));
-                }
-            } else {
-                request.setStatus(RequestStatus.REJECTED);
-                rejected.add(requestMapper.toDto(request));
-            }
+        if (updateRequest.getStatus() != RequestStatus.CONFIRMED) {
+            return new EventRequestStatusUpdateResult(List.of(),
+                    requestAdmissionRepository.rejectPending(eventId, requestIds));
         }
 
-        eventRepository.save(event);
-        requestRepository.saveAll(requests);
+        List<ParticipationRequestDto> confirmed = requestAdmissionRepository.confirmPending(eventId, requestIds);
+        List<ParticipationRequestDto> rejected = requestAdmissionRepository.rejectAllPendingIfFull(eventId, requestIds);
 
         return new EventRequestStatusUpdateResult(confirmed, rejected);
     }
@@ -106,46 +95,45 @@ public class RequestService {
                 .collect(Collectors.toList());
     }
 
+    // Успешная запись стоит двух запросов: условного UPDATE счётчика и INSERT ... ON CONFLICT.
+    // Отказ откатывает транзакцию вместе с инкрементом, причина отказа выясняется отдельно
+    @Transactional
     public ParticipationRequestDto createRequest(Long userId, Long eventId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
+        RequestStatus status = requestAdmissionRepository.admit(userId, eventId)
+                .orElseThrow(() -> rejectionReason(userId, eventId));
 
-        if (event.getInitiator().getId().equals(userId)) {
-            throw new ConflictException("Инициатор события не может отправлять запросы на участие в своем событии");
-        }
-
-        if (!event.getState().equals(EventState.PUBLISHED)) {
-            throw new ConflictException("Нельзя участвовать в неопубликованном событии");
-        }
+        LocalDateTime created = LocalDateTime.now();
+        Long requestId = requestAdmissionRepository.insertRequest(userId, eventId, status, created)
+                .orElseThrow(() -> new ConflictException("Повторная заявка невозможна"));
 
-        if (requestRepository.existsByEventIdAndRequesterId(eventId, userId)) {
-            throw new ConflictException("Повторная заявка невозможна");
-        }
+        Request request = new Request();
+        request.setId(requestId);
+        request.setCreated(created);
+        request.setEvent(eventRepository.getReferenceById(eventId));
+        request.setRequester(userRepository.getReferenceById(userId));
+        request.setStatus(status);
 
-        long countConfirmedRequests = requestRepository.countByEvent_IdAndStatus(eventId, RequestStatus.CONFIRMED);
+        return requestMapper.toDto(request);
+    }
 
-        if (countConfirmedRequests >= event.getParticipantLimit() && event.getParticipantLimit() != 0) {
-            throw new ConflictException("Достигнут лимит участников");
+    private RuntimeException rejectionReason(Long userId, Long eventId) {
+        if (!userRepository.existsById(userId)) {
+            return new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
-
-        RequestStatus status = event.getRequestModeration() && event.getParticipantLimit() > 0 ? RequestStatus.PENDING : RequestStatus.CONFIRMED;
-
-        if (status == RequestStatus.CONFIRMED) {
-            event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-            eventRepository.save(event);
+        Event event = eventRepository.findById(eventId).orElse(null);
+        if (event == null) {
+            return new NotFoundException("Событие с id=" + eventId + " не найдено");
         }
-
-        Request request = new Request();
-        request.setCreated(LocalDateTime.now());
-        request.setEvent(event);
-        request.setRequester(user);
-        request.setStatus(status);
-
-        return requestMapper.toDto(requestRepository.save(request));
+        if (event.getInitiator().getId().equals(userId)) {
+            return new ConflictException("Инициатор события не может отправлять запросы на участие в своем событии");
+        }
+        if (!event.getState().equals(EventState.PUBLISHED)) {
+            return new ConflictException("Нельзя участвовать в неопубликованном событии");
+        }
+        return new ConflictException("Достигнут лимит участников");
     }
 
+    @Transactional
     public ParticipationRequestDto cancelRequest(Long userId, Long requestId) {
         Request request = requestRepository.findByIdAndRequesterId(requestId, userId)
                 .orElseThrow(() -> new NotFoundException("Запрос с id=" + requestId + " не найден"));
@@ -154,6 +142,11 @@ public class RequestService {
             throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
 
+        // отменённая подтверждённая заявка освобождает место
+        if (request.getStatus() == RequestStatus.CONFIRMED) {
+            requestAdmissionRepository.release(request.getEvent().getId());
+        }
+
         request.setStatus(RequestStatus.CANCELED);
         return requestMapper.toDto(requestRepository.save(request));
     }
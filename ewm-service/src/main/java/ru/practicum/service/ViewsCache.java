@@ -0,0 +1,182 @@
+package ru.practicum.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.Client;
+import ru.practicum.dto.dto.EndpointHitDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+@RequiredArgsConstructor
+public class ViewsCache {
+    private static final String EVENT_URI_PREFIX = "/events/";
+
+    private final Client statClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ewm.views-cache.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${ewm.views-cache.max-size:100000}")
+    private long maxSize;
+
+    @Value("${ewm.views-cache.max-visitors-per-event:1000}")
+    private int maxVisitorsPerEvent;
+
+    private Cache<ViewsKey, ViewsEntry> views;
+    private Cache<Long, Set<String>> recentVisitors;
+    // Хиты, которые ещё в очереди клиента или в отправляемой пачке, и потому не видны в ответе /stats
+    private final Map<Long, PendingViews> pendingViews = new ConcurrentHashMap<>();
+
+    record ViewsKey(long eventId, boolean unique) {
+    }
+
+    private static class ViewsEntry {
+        private final AtomicLong views;
+        private final Set<String> visitors;
+
+        ViewsEntry(long views, Set<String> visitors) {
+            this.views = new AtomicLong(views);
+            this.visitors = visitors;
+        }
+    }
+
+    private static class PendingViews {
+        private final Map<String, Integer> visitors = new HashMap<>();
+        private int hits;
+
+        synchronized void add(String ip) {
+            visitors.merge(ip, 1, Integer::sum);
+            hits++;
+        }
+
+        // true, если ожидающих хитов не осталось
+        synchronized boolean remove(String ip) {
+            visitors.computeIfPresent(ip, (key, count) -> count > 1 ? count - 1 : null);
+            hits--;
+            return hits <= 0;
+        }
+
+        synchronized long count(boolean unique) {
+            return unique ? visitors.size() : hits;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        views = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        recentVisitors = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, views, "eventViews");
+        statClient.addHitListener(this::onHit);
+        statClient.addDeliveryListener(this::onDelivered);
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds, boolean unique,
+                                    Function<List<Long>, Map<Long, Long>> loader) {
+        Map<Long, Long> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long eventId : eventIds) {
+            ViewsEntry entry = views.getIfPresent(new ViewsKey(eventId, unique));
+            if (entry != null) {
+                result.put(eventId, entry.views.get());
+            } else {
+                missing.add(eventId);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // Неотправленные хиты, в том числе просмотр самого вызывающего, добавляются к ответу статистики локально,
+        // чтобы не ждать отправки очереди. До истечения записи возможен лишний просмотр: у повторного визита
+        // для уникальных просмотров и у пачки, которую статистика уже записала, а клиент ещё не получил ответ
+        Map<Long, Long> loaded = loader.apply(missing);
+        for (Long eventId : missing) {
+            PendingViews pending = pendingViews.get(eventId);
+            long count = loaded.getOrDefault(eventId, 0L) + (pending != null ? pending.count(unique) : 0);
+            Set<String> visitors = ConcurrentHashMap.newKeySet();
+            Set<String> recent = recentVisitors.getIfPresent(eventId);
+            if (recent != null) {
+                visitors.addAll(recent);
+            }
+            views.put(new ViewsKey(eventId, unique), new ViewsEntry(count, visitors));
+            result.put(eventId, count);
+        }
+        return result;
+    }
+
+    // Оптимистично увеличиваем закэшированные просмотры, не дожидаясь, пока хит дойдёт до сервиса статистики
+    void onHit(EndpointHitDto hit) {
+        Long eventId = parseEventId(hit.getUri());
+        if (eventId == null) {
+            return;
+        }
+
+        pendingViews.compute(eventId, (id, pending) -> {
+            PendingViews views = pending != null ? pending : new PendingViews();
+            views.add(hit.getIp());
+            return views;
+        });
+
+        Set<String> recent = recentVisitors.get(eventId, id -> ConcurrentHashMap.newKeySet());
+        if (recent.size() < maxVisitorsPerEvent) {
+            recent.add(hit.getIp());
+        }
+
+        ViewsEntry all = views.getIfPresent(new ViewsKey(eventId, false));
+        if (all != null) {
+            all.views.incrementAndGet();
+        }
+
+        ViewsEntry unique = views.getIfPresent(new ViewsKey(eventId, true));
+        if (unique != null && unique.visitors.size() < maxVisitorsPerEvent && unique.visitors.add(hit.getIp())) {
+            unique.views.incrementAndGet();
+        }
+    }
+
+    void onDelivered(List<EndpointHitDto> hits) {
+        for (EndpointHitDto hit : hits) {
+            Long eventId = parseEventId(hit.getUri());
+            if (eventId != null) {
+                pendingViews.computeIfPresent(eventId, (id, pending) -> pending.remove(hit.getIp()) ? null : pending);
+            }
+        }
+    }
+
+    private Long parseEventId(String uri) {
+        if (uri == null || !uri.startsWith(EVENT_URI_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(uri.substring(EVENT_URI_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
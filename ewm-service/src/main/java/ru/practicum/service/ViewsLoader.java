@@ -0,0 +1,53 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.Client;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class ViewsLoader {
+    private static final String EVENT_URI_PREFIX = "/events/";
+    // ограничение на число uri в одном GET /stats, чтобы не упереться в длину строки запроса
+    private static final int STATS_URIS_BATCH_SIZE = 200;
+
+    private final Client statClient;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Просмотры для пачки событий: один запрос /stats на пачку uri вместо запроса на каждое событие
+    public Map<Long, Long> load(Map<Long, LocalDateTime> publishedOn, boolean unique) {
+        if (publishedOn.isEmpty()) {
+            return Map.of();
+        }
+
+        LocalDateTime start = publishedOn.values().stream()
+                .min(Comparator.naturalOrder())
+                .get();
+        String end = LocalDateTime.now().format(formatter);
+
+        List<String> uris = publishedOn.keySet().stream()
+                .map(id -> EVENT_URI_PREFIX + id)
+                .toList();
+
+        Map<String, Long> hitsByUri = new HashMap<>();
+        for (int i = 0; i < uris.size(); i += STATS_URIS_BATCH_SIZE) {
+            List<String> batch = uris.subList(i, Math.min(i + STATS_URIS_BATCH_SIZE, uris.size()));
+            statClient.getStats(start.format(formatter), end, batch, unique)
+                    .forEach(stat -> hitsByUri.merge(stat.getUri(), stat.getHits(), Long::sum));
+        }
+
+        return publishedOn.keySet().stream()
+                .collect(Collectors.toMap(
+                        id -> id,
+                        id -> hitsByUri.getOrDefault(EVENT_URI_PREFIX + id, 0L)
+                ));
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.dto.EventPublication;
+import ru.practicum.enums.EventState;
+import ru.practicum.repository.EventCounterRepository;
+import ru.practicum.repository.EventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Периодически переносит просмотры из сервиса статистики в events.views, чтобы sort=VIEWS работал на стороне БД
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "ewm.views-sync.enabled", havingValue = "true", matchIfMissing = true)
+public class ViewsSyncService {
+    private final EventRepository eventRepository;
+    private final EventCounterRepository eventCounterRepository;
+    private final ViewsLoader viewsLoader;
+
+    @Value("${ewm.views-sync.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(initialDelayString = "${ewm.views-sync.interval-ms:60000}",
+            fixedDelayString = "${ewm.views-sync.interval-ms:60000}")
+    public void sync() {
+        long lastId = 0;
+        int synced = 0;
+
+        while (true) {
+            List<EventPublication> chunk = eventRepository.findByStateAndIdGreaterThan(EventState.PUBLISHED, lastId,
+                    PageRequest.of(0, chunkSize, Sort.by("id")));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            syncChunk(chunk);
+            synced += chunk.size();
+            lastId = chunk.getLast().getId();
+        }
+
+        log.debug("Синхронизированы просмотры для {} событий", synced);
+    }
+
+    private void syncChunk(List<EventPublication> chunk) {
+        Map<Long, LocalDateTime> publishedOn = chunk.stream()
+                .filter(event -> event.getPublishedOn() != null)
+                .collect(Collectors.toMap(EventPublication::getId, EventPublication::getPublishedOn));
+
+        eventCounterRepository.updateViews(viewsLoader.load(publishedOn, true));
+    }
+}
@@ -0,0 +1,72 @@
+-- Схема из прежнего schema.sql со всеми его ограничениями; categories.id генерируется, как ожидает сущность.
+-- На существующих базах эта версия не выполняется, а фиксируется как baseline, ограничения на них досоздаёт V3
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE categories (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    UNIQUE (name)
+);
+
+CREATE TABLE locations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    lat DOUBLE PRECISION NOT NULL,
+    lon DOUBLE PRECISION NOT NULL
+);
+
+CREATE TABLE events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(120) NOT NULL,
+    annotation VARCHAR(2000) NOT NULL,
+    description VARCHAR(7000) NOT NULL,
+    event_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    location_id BIGINT UNIQUE,
+    paid BOOLEAN DEFAULT FALSE,
+    participant_limit INT DEFAULT 0,
+    request_moderation BOOLEAN DEFAULT TRUE,
+    state VARCHAR(20) NOT NULL,
+    created_on TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    published_on TIMESTAMP WITHOUT TIME ZONE,
+    initiator_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    confirmed_requests INT DEFAULT 0,
+    views INT DEFAULT 0,
+
+    CONSTRAINT fk_event_initiator FOREIGN KEY (initiator_id) REFERENCES users(id),
+    CONSTRAINT fk_event_category FOREIGN KEY (category_id) REFERENCES categories(id),
+    CONSTRAINT fk_event_location FOREIGN KEY (location_id) REFERENCES locations(id)
+);
+
+CREATE TABLE requests (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    event_id BIGINT NOT NULL,
+    requester_id BIGINT NOT NULL,
+    status TEXT NOT NULL,
+
+    CONSTRAINT fk_request_event FOREIGN KEY (event_id) REFERENCES events(id),
+    CONSTRAINT fk_request_user FOREIGN KEY (requester_id) REFERENCES users(id),
+    CONSTRAINT uq_requests_event_requester UNIQUE (event_id, requester_id)
+);
+
+CREATE TABLE compilations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title TEXT NOT NULL,
+    pinned BOOLEAN DEFAULT FALSE
+);
+
+CREATE TABLE compilation_events (
+    compilation_id BIGINT NOT NULL,
+    event_id BIGINT NOT NULL,
+    PRIMARY KEY (compilation_id, event_id),
+
+    FOREIGN KEY (compilation_id) REFERENCES compilations(id),
+    FOREIGN KEY (event_id) REFERENCES events(id)
+);
+
+CREATE INDEX idx_events_views ON events (views DESC, id);
+CREATE INDEX idx_events_event_date ON events (event_date, id);
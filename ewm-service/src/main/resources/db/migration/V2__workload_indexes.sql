@@ -0,0 +1,24 @@
+-- Индексы под фактические запросы сервиса; IF NOT EXISTS - часть из них могла остаться от ddl-auto и SearchIndexInitializer
+
+-- Публичный список: только опубликованные события, сортировка и курсор по (event_date, id) или (views, id)
+CREATE INDEX IF NOT EXISTS idx_events_published_event_date ON events (event_date, id) WHERE state = 'PUBLISHED';
+CREATE INDEX IF NOT EXISTS idx_events_published_views ON events (views DESC, id) WHERE state = 'PUBLISHED';
+
+-- Админский поиск по статусам и диапазону дат
+CREATE INDEX IF NOT EXISTS idx_events_state_event_date ON events (state, event_date);
+
+-- События пользователя по id и проверки связей при удалении категории
+CREATE INDEX IF NOT EXISTS idx_events_initiator ON events (initiator_id, id);
+CREATE INDEX IF NOT EXISTS idx_events_category ON events (category_id);
+
+-- Подсчёт подтверждённых заявок и модерация заявок события
+CREATE INDEX IF NOT EXISTS idx_requests_event_status ON requests (event_id, status);
+CREATE INDEX IF NOT EXISTS idx_requests_requester ON requests (requester_id);
+
+-- Состав подборок пачкой по id подборок
+CREATE INDEX IF NOT EXISTS idx_compilation_events_compilation ON compilation_events (compilation_id, event_id);
+
+-- Текстовый поиск по подстроке без учёта регистра
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_events_annotation_trgm ON events USING gin (lower(annotation) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_events_description_trgm ON events USING gin (lower(description) gin_trgm_ops);
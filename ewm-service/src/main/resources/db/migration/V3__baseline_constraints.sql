@@ -0,0 +1,36 @@
+-- Базы, зафиксированные как baseline, создавал Hibernate: у них нет первичного ключа compilation_events
+-- и части NOT NULL из V1. На базах, созданных с нуля, эта миграция ничего не меняет
+
+-- Повторные связи подборки с событием, накопившиеся без первичного ключа
+DELETE FROM compilation_events a
+USING compilation_events b
+WHERE a.compilation_id = b.compilation_id
+  AND a.event_id = b.event_id
+  AND a.ctid > b.ctid;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'compilation_events'::regclass AND contype = 'p') THEN
+        ALTER TABLE compilation_events ADD PRIMARY KEY (compilation_id, event_id);
+    END IF;
+END
+$$;
+
+ALTER TABLE users ALTER COLUMN name SET NOT NULL;
+
+ALTER TABLE events
+    ALTER COLUMN title SET NOT NULL,
+    ALTER COLUMN annotation SET NOT NULL,
+    ALTER COLUMN description SET NOT NULL,
+    ALTER COLUMN event_date SET NOT NULL,
+    ALTER COLUMN state SET NOT NULL,
+    ALTER COLUMN created_on SET NOT NULL,
+    ALTER COLUMN initiator_id SET NOT NULL,
+    ALTER COLUMN category_id SET NOT NULL;
+
+ALTER TABLE requests
+    ALTER COLUMN created SET NOT NULL,
+    ALTER COLUMN status SET NOT NULL;
+
+ALTER TABLE compilations ALTER COLUMN title SET NOT NULL;
@@ -0,0 +1,3 @@
+-- Первичный ключ compilation_events (compilation_id, event_id) обслуживает выборку состава подборок,
+-- индекс из V2 с теми же колонками только удваивает запись
+DROP INDEX IF EXISTS idx_compilation_events_compilation;
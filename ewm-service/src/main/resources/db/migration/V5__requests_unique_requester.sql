@@ -0,0 +1,29 @@
+-- Уникальность заявки пользователя на событие из V1. На базах, зафиксированных как baseline, её нет,
+-- а без неё INSERT ... ON CONFLICT (event_id, requester_id) в RequestAdmissionRepository падает.
+-- Из повторных заявок остаётся подтверждённая, среди остальных - самая ранняя
+DELETE FROM requests r
+USING (SELECT id,
+              row_number() OVER (PARTITION BY event_id, requester_id
+                                 ORDER BY status = 'CONFIRMED' DESC, id) AS position
+       FROM requests) d
+WHERE r.id = d.id
+  AND d.position > 1;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'requests'::regclass AND conname = 'uq_requests_event_requester') THEN
+        ALTER TABLE requests ADD CONSTRAINT uq_requests_event_requester UNIQUE (event_id, requester_id);
+    END IF;
+END
+$$;
+
+-- После удаления повторов счётчик подтверждённых заявок приводится к фактическому числу
+UPDATE events e
+SET confirmed_requests = c.confirmed
+FROM (SELECT ev.id, COUNT(r.id) AS confirmed
+      FROM events ev
+      LEFT JOIN requests r ON r.event_id = ev.id AND r.status = 'CONFIRMED'
+      GROUP BY ev.id) c
+WHERE e.id = c.id
+  AND e.confirmed_requests IS DISTINCT FROM c.confirmed;
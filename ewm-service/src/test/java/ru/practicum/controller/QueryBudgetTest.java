@@ -0,0 +1,133 @@
+package ru.practicum.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.MainService;
+import ru.practicum.testing.PostgresTestDatabase;
+import ru.practicum.testing.RequiresPostgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Бюджеты на один запрос: сколько SQL-запросов выполняет эндпоинт и сколько раз обращается к сервису статистики.
+// Кэши в тестовом профиле истекают сразу, так что каждый вызов - худший случай. Рост числа запросов
+// на эндпоинте обычно означает N+1 или ленивую загрузку при маппинге
+@RequiresPostgres
+@SpringBootTest(classes = MainService.class)
+@AutoConfigureMockMvc
+@Import(QueryBudgetTest.StubStatsClientConfig.class)
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+    private static final PostgresTestDatabase DATABASE = PostgresTestDatabase.start("ewm_budgets");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StubStatsClient statsClient;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class StubStatsClientConfig {
+        @Bean
+        @Primary
+        StubStatsClient stubStatsClient(MeterRegistry meterRegistry) {
+            return new StubStatsClient(meterRegistry);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", DATABASE::getUrl);
+        registry.add("spring.datasource.username", DATABASE::getUsername);
+        registry.add("spring.datasource.password", DATABASE::getPassword);
+    }
+
+    // 150 опубликованных событий у 10 пользователей, по 4 заявки на событие, 3 подборки по 10 событий
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("INSERT INTO users (id, name, email) " +
+                "SELECT i, 'user ' || i, 'user' || i || '@mail.ru' FROM generate_series(1, 10) i");
+        jdbcTemplate.execute("INSERT INTO categories (id, name) " +
+                "SELECT i, 'category ' || i FROM generate_series(1, 5) i");
+        jdbcTemplate.execute("INSERT INTO locations (id, lat, lon) " +
+                "SELECT i, 55.75, 37.61 FROM generate_series(1, 150) i");
+        jdbcTemplate.execute("INSERT INTO events (id, title, annotation, description, event_date, location_id, " +
+                "paid, participant_limit, request_moderation, state, created_on, published_on, initiator_id, " +
+                "category_id, confirmed_requests, views) " +
+                "SELECT i, 'Event ' || i, 'Annotation about a concert number ' || i, 'Description ' || i, " +
+                "now() + i * INTERVAL '1 day', i, i % 2 = 0, CASE WHEN i % 3 = 0 THEN 10 ELSE 0 END, true, " +
+                "'PUBLISHED', now() - INTERVAL '2 days', now() - INTERVAL '1 day', 1 + (i - 1) % 10, " +
+                "1 + i % 5, 0, 0 " +
+                "FROM generate_series(1, 150) i");
+        jdbcTemplate.execute("INSERT INTO requests (created, event_id, requester_id, status) " +
+                "SELECT now(), e, 1 + (e + r) % 10, CASE WHEN r % 2 = 0 THEN 'CONFIRMED' ELSE 'PENDING' END " +
+                "FROM generate_series(1, 150) e, generate_series(1, 4) r");
+        jdbcTemplate.execute("INSERT INTO compilations (id, title, pinned) " +
+                "SELECT i, 'Compilation ' || i, i = 1 FROM generate_series(1, 3) i");
+        jdbcTemplate.execute("INSERT INTO compilation_events (compilation_id, event_id) " +
+                "SELECT c, (c - 1) * 10 + k FROM generate_series(1, 3) c, generate_series(1, 10) k");
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        DATABASE.close();
+    }
+
+    @ParameterizedTest(name = "GET {0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            # публичный список обращается к статистике дважды: просмотры событий пачкой и просмотры самого /events
+            /events?size=100                                              | 2 | 2
+            /events?size=100&sort=VIEWS                                   | 2 | 2
+            /events?size=100&text=concert&paid=false&onlyAvailable=true   | 2 | 2
+            /events/1                                                     | 5 | 1
+            /categories?size=100                                          | 1 | 0
+            /categories/1                                                 | 1 | 0
+            /compilations?size=10                                         | 4 | 1
+            /compilations/1                                               | 4 | 1
+            /admin/events?size=100                                        | 3 | 1
+            /admin/users?size=100                                         | 1 | 0
+            /users/1/events?size=100                                      | 2 | 1
+            /users/1/events/1                                             | 5 | 1
+            /users/1/events/1/requests                                    | 2 | 0
+            /users/1/requests                                             | 2 | 0
+            """)
+    void endpointStaysWithinBudget(String path, long statements, int statsCalls) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statsClient.resetStatsCalls();
+
+        mockMvc.perform(get(path)).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).as("SQL-запросы GET %s", path)
+                .isLessThanOrEqualTo(statements);
+        assertThat(statsClient.resetStatsCalls()).as("обращения к статистике GET %s", path)
+                .isLessThanOrEqualTo(statsCalls);
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.MainService;
+import ru.practicum.service.RequestService;
+import ru.practicum.testing.PostgresTestDatabase;
+import ru.practicum.testing.RequiresPostgres;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Запись на популярное событие параллельно с правкой события администратором: правка не должна
+// перезаписывать счётчик подтверждённых заявок, и мест выдаётся ровно столько, сколько разрешает лимит
+@RequiresPostgres
+@SpringBootTest(classes = MainService.class)
+@AutoConfigureMockMvc
+@Import(RequestAdmissionConcurrencyTest.StubStatsClientConfig.class)
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RequestAdmissionConcurrencyTest {
+    private static final PostgresTestDatabase DATABASE = PostgresTestDatabase.start("ewm_admission");
+    private static final int LIMIT = 5;
+    private static final int REQUESTERS = 60;
+    private static final int ADMIN_UPDATES = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TestConfiguration
+    static class StubStatsClientConfig {
+        @Bean
+        @Primary
+        StubStatsClient stubStatsClient(MeterRegistry meterRegistry) {
+            return new StubStatsClient(meterRegistry);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", DATABASE::getUrl);
+        registry.add("spring.datasource.username", DATABASE::getUsername);
+        registry.add("spring.datasource.password", DATABASE::getPassword);
+    }
+
+    // События 1 и 2 пользователя 1 без пре-модерации: каждая принятая заявка сразу подтверждается
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) " +
+                "SELECT i, 'user ' || i, 'user' || i || '@mail.ru' FROM generate_series(1, ?) i", REQUESTERS + 1);
+        jdbcTemplate.execute("INSERT INTO categories (id, name) VALUES (1, 'category')");
+        jdbcTemplate.update("INSERT INTO events (id, title, annotation, description, event_date, paid, " +
+                "participant_limit, request_moderation, state, created_on, published_on, initiator_id, " +
+                "category_id, confirmed_requests, views) " +
+                "SELECT i, 'Event', 'Annotation about a popular concert', 'Description of a popular concert', " +
+                "now() + INTERVAL '10 days', false, ?, false, 'PUBLISHED', now() - INTERVAL '2 days', " +
+                "now() - INTERVAL '1 day', 1, 1, 0, 0 FROM generate_series(1, 2) i", LIMIT);
+    }
+
+    @AfterAll
+    void dropDatabase() {
+        DATABASE.close();
+    }
+
+    @Test
+    void concurrentAdmissionsDoNotOversubscribe() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Integer>> calls = new ArrayList<>();
+        for (long userId = 2; userId <= REQUESTERS + 1; userId++) {
+            long requester = userId;
+            calls.add(() -> {
+                start.await();
+                return mockMvc.perform(post("/users/{userId}/requests", requester).param("eventId", "1"))
+                        .andReturn().getResponse().getStatus();
+            });
+        }
+        for (int i = 0; i < ADMIN_UPDATES; i++) {
+            String title = "Event " + i;
+            calls.add(() -> {
+                start.await();
+                return mockMvc.perform(patch("/admin/events/{eventId}", 1)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"title\":\"" + title + "\"}"))
+                        .andReturn().getResponse().getStatus();
+            });
+        }
+
+        List<Integer> statuses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> call : calls) {
+                futures.add(executor.submit(call));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get());
+            }
+        }
+
+        assertThat(statuses.stream().filter(status -> status == 200)).hasSize(ADMIN_UPDATES);
+        assertThat(statuses.stream().filter(status -> status == 201)).hasSize(LIMIT);
+        assertThat(statuses.stream().filter(status -> status == 409)).hasSize(REQUESTERS - LIMIT);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM requests WHERE event_id = 1 " +
+                "AND status = 'CONFIRMED'", Integer.class)).isEqualTo(LIMIT);
+        assertThat(jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = 1",
+                Integer.class)).isEqualTo(LIMIT);
+    }
+
+    // Правка администратора читает событие, пока заявка ещё не зафиксирована, и пишет строку уже после неё:
+    // UPDATE события ждёт блокировку, которую держит транзакция записи на событие
+    @Test
+    void adminUpdateKeepsCounterOfAdmissionCommittedMeanwhile() throws Exception {
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> admission = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                requestService.createRequest(2L, 2L);
+                admitted.countDown();
+                await(commit);
+            }));
+            admitted.await();
+            Future<Integer> update = executor.submit(() -> mockMvc.perform(patch("/admin/events/{eventId}", 2)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Renamed event\"}"))
+                    .andReturn().getResponse().getStatus());
+
+            while (jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity " +
+                    "WHERE datname = current_database() AND wait_event_type = 'Lock'", Integer.class) == 0) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            commit.countDown();
+            admission.get();
+            assertThat(update.get()).isEqualTo(200);
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT confirmed_requests FROM events WHERE id = 2",
+                Integer.class)).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
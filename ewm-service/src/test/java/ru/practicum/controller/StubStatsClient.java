@@ -0,0 +1,36 @@
+package ru.practicum.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.practicum.Client;
+import ru.practicum.dto.dto.EndpointHitDto;
+import ru.practicum.dto.dto.ViewStatsDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Клиент статистики без сети: считает обращения к /stats и отвечает сразу. Хиты проходят настоящую очередь
+// клиента и его слушателей, но пачка подтверждается без отправки
+class StubStatsClient extends Client {
+    private final AtomicInteger statsCalls = new AtomicInteger();
+
+    StubStatsClient(MeterRegistry meterRegistry) {
+        super(null, meterRegistry);
+    }
+
+    @Override
+    public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique) {
+        statsCalls.incrementAndGet();
+        return uris.stream()
+                .map(uri -> new ViewStatsDto("ewm-main-service", uri, 10L))
+                .toList();
+    }
+
+    @Override
+    public boolean sendHits(List<EndpointHitDto> batch) {
+        return true;
+    }
+
+    int resetStatsCalls() {
+        return statsCalls.getAndSet(0);
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.practicum.testing.PostgresTestDatabase;
+import ru.practicum.testing.RequiresPostgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы горячих запросов ewm на базе после миграций: схема и индексы берутся из db/migration, данные
+// заполняются с распределением, близким к рабочему, настройки планировщика не меняются
+@RequiresPostgres
+class HotQueryPlansTest {
+    private static PostgresTestDatabase database;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        database = PostgresTestDatabase.start("ewm_plans");
+        Flyway.configure()
+                .dataSource(database.getUrl(), database.getUsername(), database.getPassword())
+                .load()
+                .migrate();
+
+        try (Connection connection = database.connect();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT setseed(0.21)");
+            statement.execute("INSERT INTO users (name, email) " +
+                    "SELECT 'user ' || i, 'user' || i || '@mail.ru' FROM generate_series(1, 5000) i");
+            statement.execute("INSERT INTO categories (name) " +
+                    "SELECT 'category ' || i FROM generate_series(1, 1000) i");
+            // 10% событий ждут модерации, 10% отменены; каждое тысячное - концерт
+            statement.execute("INSERT INTO events (title, annotation, description, event_date, paid, " +
+                    "participant_limit, request_moderation, state, created_on, published_on, initiator_id, " +
+                    "category_id, confirmed_requests, views) " +
+                    "SELECT 'event ' || i, " +
+                    "CASE WHEN i % 1000 = 0 THEN 'Open air concert ' ELSE 'Annotation ' END || md5(i::text), " +
+                    "'Description ' || md5(i::text), " +
+                    "TIMESTAMP '2026-01-01' + random() * INTERVAL '730 days', random() < 0.5, " +
+                    "(random() * 50)::int, true, " +
+                    "CASE WHEN r < 0.1 THEN 'PENDING' WHEN r < 0.2 THEN 'CANCELED' ELSE 'PUBLISHED' END, " +
+                    "TIMESTAMP '2025-12-01', TIMESTAMP '2025-12-02', 1 + i % 5000, 1 + i % 1000, 0, " +
+                    "(random() * 100000)::int " +
+                    "FROM (SELECT i, random() AS r FROM generate_series(1, 50000) i) s");
+            // Четыре заявки на событие от разных пользователей
+            statement.execute("INSERT INTO requests (created, event_id, requester_id, status) " +
+                    "SELECT TIMESTAMP '2026-01-01', 1 + i % 50000, 1 + (i + i / 50000) % 5000, " +
+                    "CASE WHEN r < 0.6 THEN 'CONFIRMED' WHEN r < 0.9 THEN 'PENDING' ELSE 'REJECTED' END " +
+                    "FROM (SELECT i, random() AS r FROM generate_series(0, 199999) i) s");
+            statement.execute("INSERT INTO compilations (title, pinned) " +
+                    "SELECT 'compilation ' || i, i % 10 = 0 FROM generate_series(1, 1000) i");
+            statement.execute("INSERT INTO compilation_events (compilation_id, event_id) " +
+                    "SELECT c, 1 + (c * 10 + k) % 50000 FROM generate_series(1, 1000) c, generate_series(0, 9) k");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    @Test
+    void publicListByDateUsesPublishedDateIndex() throws SQLException {
+        assertPlanUses("SELECT id FROM events WHERE state = 'PUBLISHED' AND event_date >= '2026-06-01' " +
+                "ORDER BY event_date, id LIMIT 10", "idx_events_published_event_date");
+    }
+
+    @Test
+    void publicListByViewsUsesPublishedViewsIndex() throws SQLException {
+        assertPlanUses("SELECT id FROM events WHERE state = 'PUBLISHED' ORDER BY views DESC, id LIMIT 10",
+                "idx_events_published_views");
+    }
+
+    @Test
+    void adminSearchUsesStateDateIndex() throws SQLException {
+        assertPlanUses("SELECT id FROM events WHERE state IN ('PENDING', 'CANCELED') " +
+                "AND event_date BETWEEN '2026-06-01' AND '2026-07-01'", "idx_events_state_event_date");
+    }
+
+    @Test
+    void userEventsUseInitiatorIndex() throws SQLException {
+        assertPlanUses("SELECT id FROM events WHERE initiator_id = 1 ORDER BY id LIMIT 10", "idx_events_initiator");
+    }
+
+    @Test
+    void categoryUsageCheckUsesCategoryIndex() throws SQLException {
+        assertPlanUses("SELECT 1 FROM events WHERE category_id = 1 LIMIT 1", "idx_events_category");
+    }
+
+    @Test
+    void confirmedCountsForPageUseEventStatusIndex() throws SQLException {
+        assertPlanUses("SELECT event_id, count(*) FROM requests WHERE event_id IN (1, 2, 3) " +
+                "AND status = 'CONFIRMED' GROUP BY event_id", "idx_requests_event_status");
+    }
+
+    @Test
+    void confirmedCountForEventUsesEventStatusIndex() throws SQLException {
+        assertPlanUses("SELECT count(*) FROM requests WHERE event_id = 1 AND status = 'CONFIRMED'",
+                "idx_requests_event_status");
+    }
+
+    @Test
+    void userRequestsUseRequesterIndex() throws SQLException {
+        assertPlanUses("SELECT id FROM requests WHERE requester_id = 1", "idx_requests_requester");
+    }
+
+    @Test
+    void compilationLinksUsePrimaryKey() throws SQLException {
+        assertPlanUses("SELECT compilation_id, event_id FROM compilation_events WHERE compilation_id IN (1, 2, 3)",
+                "compilation_events_pkey");
+    }
+
+    @Test
+    void textSearchUsesTrigramIndex() throws SQLException {
+        assertPlanUses("SELECT id FROM events WHERE lower(annotation) LIKE '%concert%'", "idx_events_annotation_trgm");
+    }
+
+    // База со схемой до Flyway обновляется так же, как при старте сервиса: V1 фиксируется как baseline,
+    // остальные миграции досоздают ограничения и убирают накопившиеся без них повторы
+    @Test
+    void legacyDatabaseUpgradesWithBaseline() throws SQLException, IOException {
+        try (PostgresTestDatabase legacy = PostgresTestDatabase.start("ewm_legacy")) {
+            try (Connection connection = legacy.connect();
+                 Statement statement = connection.createStatement()) {
+                statement.execute(resource("/db/legacy/schema.sql"));
+                statement.execute("INSERT INTO users (name, email) VALUES ('user', 'user@mail.ru')");
+                statement.execute("INSERT INTO categories (id, name) VALUES (1, 'category')");
+                statement.execute("INSERT INTO events (title, annotation, description, event_date, state, " +
+                        "created_on, initiator_id, category_id, participant_limit, confirmed_requests) " +
+                        "VALUES ('event', 'annotation', 'description', TIMESTAMP '2026-06-01', 'PUBLISHED', " +
+                        "TIMESTAMP '2026-01-01', 1, 1, 10, 2)");
+                statement.execute("INSERT INTO requests (created, event_id, requester_id, status) VALUES " +
+                        "(TIMESTAMP '2026-01-01', 1, 1, 'PENDING'), (TIMESTAMP '2026-01-02', 1, 1, 'CONFIRMED'), " +
+                        "(TIMESTAMP '2026-01-03', 1, 1, 'CONFIRMED')");
+                statement.execute("INSERT INTO compilations (title) VALUES ('compilation')");
+                statement.execute("INSERT INTO compilation_events (compilation_id, event_id) VALUES (1, 1), (1, 1)");
+            }
+
+            Flyway.configure()
+                    .dataSource(legacy.getUrl(), legacy.getUsername(), legacy.getPassword())
+                    .baselineOnMigrate(true)
+                    .baselineVersion("1")
+                    .load()
+                    .migrate();
+
+            try (Connection connection = legacy.connect();
+                 Statement statement = connection.createStatement()) {
+                assertThat(single(statement, "SELECT string_agg(conname, ',' ORDER BY conname) FROM pg_constraint " +
+                        "WHERE conname IN ('uq_requests_event_requester', 'compilation_events_pkey')"))
+                        .isEqualTo("compilation_events_pkey,uq_requests_event_requester");
+                assertThat(single(statement, "SELECT string_agg(id || ':' || status, ',') FROM requests"))
+                        .isEqualTo("2:CONFIRMED");
+                assertThat(single(statement, "SELECT confirmed_requests FROM events WHERE id = 1")).isEqualTo("1");
+                assertThat(single(statement, "SELECT count(*) FROM compilation_events")).isEqualTo("1");
+            }
+        }
+    }
+
+    private static String single(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream input = HotQueryPlansTest.class.getResourceAsStream(name)) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void assertPlanUses(String sql, String index) throws SQLException {
+        assertThat(explain(sql)).as("план запроса %s", sql).contains(index);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = database.connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
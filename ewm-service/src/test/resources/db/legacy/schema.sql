@@ -1,7 +1,9 @@
+-- Схема базы до перехода на Flyway: прежний schema.sql. Как у баз, созданных Hibernate, у compilation_events
+-- нет первичного ключа, у requests - уникальности заявки пользователя на событие
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL UNIQUE
 );
 
 CREATE TABLE IF NOT EXISTS categories (
@@ -59,7 +61,6 @@ CREATE TABLE IF NOT EXISTS compilations (
 CREATE TABLE IF NOT EXISTS compilation_events (
     compilation_id BIGINT NOT NULL,
     event_id BIGINT NOT NULL,
-    PRIMARY KEY (compilation_id, event_id),
 
     FOREIGN KEY (compilation_id) REFERENCES compilations(id),
     FOREIGN KEY (event_id) REFERENCES events(id)
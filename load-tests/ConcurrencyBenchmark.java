@@ -0,0 +1,121 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Замер максимальной устойчивой конкурентности: на каждой ступени N клиентов без пауз шлют запросы
+// в течение заданного времени, ступень считается устойчивой, если p99 и доля ошибок укладываются в пороги.
+// Запуск (Java 21, без сборки):
+//   java load-tests/ConcurrencyBenchmark.java [url] [ступени] [секунд на ступень] [p99, мс] [ошибок, %]
+//   java load-tests/ConcurrencyBenchmark.java "http://localhost:8080/events?size=10" 50,100,200,400,800 20 500 1
+// Для сравнения режимов сервис запускается с --spring.threads.virtual.enabled=false и =true
+// (в docker-compose - переменная VIRTUAL_THREADS=true).
+public class ConcurrencyBenchmark {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    record Result(int concurrency, long requests, long errors, double throughput, long p50, long p99) {
+        double errorRate() {
+            return requests == 0 ? 0 : errors * 100.0 / requests;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/events?size=10");
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "50,100,200,400,800").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration stage = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 20);
+        long p99LimitMs = args.length > 3 ? Long.parseLong(args[3]) : 500;
+        double errorLimit = args.length > 4 ? Double.parseDouble(args[4]) : 1.0;
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("%s, ступень %d с, порог p99 %d мс, ошибок %.1f%%%n",
+                uri, stage.toSeconds(), p99LimitMs, errorLimit);
+        System.out.printf("%8s %10s %8s %10s %8s %8s%n", "клиентов", "запросов", "ошибок", "запр/с", "p50, мс", "p99, мс");
+
+        // короткий прогрев, чтобы JIT и пулы соединений не искажали первую ступень
+        run(client, uri, Math.min(levels[0], 20), Duration.ofSeconds(3));
+
+        int sustained = 0;
+        for (int level : levels) {
+            Result result = run(client, uri, level, stage);
+            boolean ok = result.p99() <= p99LimitMs && result.errorRate() <= errorLimit;
+            System.out.printf("%8d %10d %8d %10.1f %8d %8d %s%n", result.concurrency(), result.requests(), result.errors(),
+                    result.throughput(), result.p50(), result.p99(), ok ? "" : "<- порог превышен");
+            if (!ok) {
+                break;
+            }
+            sustained = level;
+        }
+
+        System.out.println("Максимальная устойчивая конкурентность: " + (sustained == 0 ? "не достигнута" : sustained));
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration stage) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+        long deadline = System.nanoTime() + stage.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            latencies.add(new long[1024]);
+        }
+        long[] counts = new long[concurrency];
+
+        long started = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int worker = i;
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        long[] own = latencies.get(worker);
+                        if (counts[worker] == own.length) {
+                            own = Arrays.copyOf(own, own.length * 2);
+                            latencies.set(worker, own);
+                        }
+                        own[(int) counts[worker]++] = (System.nanoTime() - begin) / 1_000_000;
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long total = Arrays.stream(counts).sum();
+        long[] all = new long[(int) total];
+        int position = 0;
+        for (int i = 0; i < concurrency; i++) {
+            System.arraycopy(latencies.get(i), 0, all, position, (int) counts[i]);
+            position += (int) counts[i];
+        }
+        Arrays.sort(all);
+
+        return new Result(concurrency, total, errors.get(), total / elapsedSeconds, percentile(all, 0.50),
+                percentile(all, 0.99));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
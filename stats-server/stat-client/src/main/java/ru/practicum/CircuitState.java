@@ -0,0 +1,7 @@
+package ru.practicum;
+
+public enum CircuitState {
+  CLOSED, // запросы идут в сервис статистики
+  OPEN, // запросы не отправляются, отдаются последние известные данные
+  HALF_OPEN // пропускается один пробный запрос
+}
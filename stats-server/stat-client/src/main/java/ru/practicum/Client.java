@@ -1,5 +1,12 @@
 package ru.practicum;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,24 +15,41 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.web.client.RestTemplate;
 import ru.practicum.dto.dto.EndpointHitDto;
 import ru.practicum.dto.dto.ViewStatsDto;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class Client {
+  private static final String OUTCOME_SUCCESS = "SUCCESS";
+
   private final RestTemplate restTemplate;
+  private final MeterRegistry meterRegistry;
 
   @Value("${stats.server.url}")
   private String statsServerUrl;
@@ -33,8 +57,100 @@ public class Client {
   @Value("${app.name}")
   private String appName;
 
+  @Value("${stats.client.hit.queue-capacity:10000}")
+  private int queueCapacity;
+
+  @Value("${stats.client.hit.batch-size:500}")
+  private int batchSize;
+
+  @Value("${stats.client.hit.flush-interval-ms:500}")
+  private long flushIntervalMs;
+
+  @Value("${stats.client.hit.overflow-policy:DROP}")
+  private HitOverflowPolicy overflowPolicy;
+
+  @Value("${stats.client.hit.block-timeout-ms:50}")
+  private long blockTimeoutMs;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  @Value("${stats.client.circuit-breaker.failure-threshold:5}")
+  private int failureThreshold;
+
+  @Value("${stats.client.circuit-breaker.open-duration-ms:10000}")
+  private long openDurationMs;
+
+  @Value("${stats.client.stale-stats.max-size:100000}")
+  private int staleStatsMaxSize;
+
+  @Value("${stats.client.stale-stats.ttl-ms:86400000}")
+  private long staleStatsTtlMs;
+
   private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+  private final AtomicLong acceptedHits = new AtomicLong();
+  private final AtomicLong droppedHits = new AtomicLong();
+  private final AtomicLong sentHits = new AtomicLong();
+  private final AtomicLong failedHits = new AtomicLong();
+  private final AtomicInteger inFlightHits = new AtomicInteger();
+  // не synchronized: внутри сетевой вызов, а монитор закрепил бы виртуальный поток за потоком-носителем
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  private final List<Consumer<EndpointHitDto>> hitListeners = new CopyOnWriteArrayList<>();
+  private final List<Consumer<List<EndpointHitDto>>> deliveryListeners = new CopyOnWriteArrayList<>();
+
+  private BlockingQueue<EndpointHitDto> hitQueue;
+  private ScheduledExecutorService hitFlusher;
+  private StatsCircuitBreaker circuitBreaker;
+  private StaleStatsStore staleStats;
+  private Timer enqueueTimer;
+
+  @PostConstruct
+  void initStatsFallback() {
+    circuitBreaker = new StatsCircuitBreaker(failureThreshold, openDurationMs);
+    staleStats = new StaleStatsStore(staleStatsMaxSize, Duration.ofMillis(staleStatsTtlMs));
+  }
+
+  @PostConstruct
+  void startHitFlusher() {
+    hitQueue = new ArrayBlockingQueue<>(queueCapacity);
+    ThreadFactory threadFactory = virtualThreads
+            ? Thread.ofVirtual().name("stat-client-hit-flusher").factory()
+            : Thread.ofPlatform().name("stat-client-hit-flusher").daemon().factory();
+    hitFlusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    hitFlusher.scheduleWithFixedDelay(this::flushHits, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  // Время ответа сервиса статистики по операциям (hit, hits, stats) и исходам; неуспешные вызовы дополнительно
+  // считаются в stats.client.errors. Очередь хитов видна через счётчики по состояниям и число ожидающих отправки
+  @PostConstruct
+  void registerMetrics() {
+    enqueueTimer = Timer.builder("stats.client.hit")
+            .description("Постановка хита в очередь отправки")
+            .register(meterRegistry);
+    FunctionCounter.builder("stats.client.hits", acceptedHits, AtomicLong::get).tag("state", "accepted").register(meterRegistry);
+    FunctionCounter.builder("stats.client.hits", droppedHits, AtomicLong::get).tag("state", "dropped").register(meterRegistry);
+    FunctionCounter.builder("stats.client.hits", sentHits, AtomicLong::get).tag("state", "sent").register(meterRegistry);
+    FunctionCounter.builder("stats.client.hits", failedHits, AtomicLong::get).tag("state", "failed").register(meterRegistry);
+    Gauge.builder("stats.client.hits.pending", this, Client::getPendingHits).register(meterRegistry);
+    Gauge.builder("stats.client.circuit.open", this, client -> client.getCircuitState() == CircuitState.OPEN ? 1 : 0)
+            .register(meterRegistry);
+  }
+
+  @PreDestroy
+  void stopHitFlusher() throws InterruptedException {
+    hitFlusher.shutdown();
+    if (!hitFlusher.awaitTermination(5, TimeUnit.SECONDS)) {
+      hitFlusher.shutdownNow();
+    }
+    // отправляем то, что осталось в очереди на момент остановки
+    while (!hitQueue.isEmpty()) {
+      flushHits();
+    }
+  }
+
+  // Хит ставится в очередь и отправляется фоновым потоком, запрос пользователя не ждёт сервис статистики
   public void hit(HttpServletRequest request) {
     EndpointHitDto hit = new EndpointHitDto(
             appName,
@@ -42,15 +158,127 @@ public class Client {
             request.getRemoteAddr(),
             LocalDateTime.now().format(formatter)
     );
-    sendHit(hit);
+    enqueueHit(hit);
+  }
+
+  public boolean enqueueHit(EndpointHitDto hit) {
+    long started = System.nanoTime();
+    boolean accepted;
+    if (overflowPolicy == HitOverflowPolicy.BLOCK) {
+      try {
+        accepted = hitQueue.offer(hit, blockTimeoutMs, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        accepted = false;
+      }
+    } else {
+      accepted = hitQueue.offer(hit);
+    }
+    enqueueTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+    if (accepted) {
+      acceptedHits.incrementAndGet();
+      hitListeners.forEach(listener -> listener.accept(hit));
+    } else if (droppedHits.incrementAndGet() % 1000 == 1) {
+      log.warn("Очередь хитов переполнена, хит отброшен: uri={}, всего отброшено={}", hit.getUri(), droppedHits.get());
+    }
+    return accepted;
+  }
+
+  // Слушатели получают каждый принятый в очередь хит, например чтобы обновлять локальные счётчики просмотров
+  public void addHitListener(Consumer<EndpointHitDto> listener) {
+    hitListeners.add(listener);
+  }
+
+  // Слушатели получают пачку после попытки отправки: с этого момента её хиты либо учтены сервисом статистики,
+  // либо потеряны, и больше не считаются ожидающими
+  public void addDeliveryListener(Consumer<List<EndpointHitDto>> listener) {
+    deliveryListeners.add(listener);
+  }
+
+  // Сброс сериализован: при остановке дожидаемся пачки, которую уже отправляет фоновый поток
+  public void flushHits() {
+    flushLock.lock();
+    try {
+      List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+      while (true) {
+        inFlightHits.addAndGet(hitQueue.drainTo(batch, batchSize));
+        if (batch.isEmpty()) {
+          return;
+        }
+        try {
+          sendHits(batch);
+        } finally {
+          inFlightHits.addAndGet(-batch.size());
+          List<EndpointHitDto> delivered = List.copyOf(batch);
+          deliveryListeners.forEach(listener -> listener.accept(delivered));
+          batch.clear();
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
   }
 
-  public void sendHit(EndpointHitDto hitDto) {
+  public boolean sendHits(List<EndpointHitDto> batch) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+
+    HttpEntity<List<EndpointHitDto>> request = new HttpEntity<>(batch, headers);
+
+    Timer.Sample sample = Timer.start(meterRegistry);
+    try {
+      restTemplate.exchange(
+              statsServerUrl + "/hits",
+              HttpMethod.POST,
+              request,
+              Void.class
+      );
+      record(sample, "hits", OUTCOME_SUCCESS);
+      sentHits.addAndGet(batch.size());
+      return true;
+    } catch (HttpClientErrorException | HttpServerErrorException e) {
+      record(sample, "hits", outcomeOf(e));
+      log.error("Ошибка при отправке запроса /hits: статус={}, тело={}", e.getStatusCode(), e.getResponseBodyAsString());
+    } catch (ResourceAccessException ex) {
+      record(sample, "hits", "IO_ERROR");
+      log.error("Ошибка доступа к сервису статистики: {}", ex.getMessage());
+    } catch (Exception ex) {
+      record(sample, "hits", "UNKNOWN");
+      log.error("Неизвестная ошибка при отправке запроса /hits", ex);
+    }
+    failedHits.addAndGet(batch.size());
+    return false;
+  }
+
+  public long getAcceptedHits() {
+    return acceptedHits.get();
+  }
+
+  public long getDroppedHits() {
+    return droppedHits.get();
+  }
+
+  public long getSentHits() {
+    return sentHits.get();
+  }
+
+  public long getFailedHits() {
+    return failedHits.get();
+  }
+
+  // В очереди и в отправляемой сейчас пачке
+  public int getPendingHits() {
+    return hitQueue.size() + inFlightHits.get();
+  }
+
+  public boolean sendHit(EndpointHitDto hitDto) {
     HttpHeaders headers = new HttpHeaders();
     headers.setContentType(MediaType.APPLICATION_JSON);
 
     HttpEntity<EndpointHitDto> request = new HttpEntity<>(hitDto, headers);
 
+    Timer.Sample sample = Timer.start(meterRegistry);
     try {
       restTemplate.exchange(
               statsServerUrl + "/hit",
@@ -58,16 +286,30 @@ public class Client {
               request,
               Void.class
       );
+      record(sample, "hit", OUTCOME_SUCCESS);
+      return true;
     } catch (HttpClientErrorException | HttpServerErrorException e) {
+      record(sample, "hit", outcomeOf(e));
       log.error("Ошибка при отправке запроса /hit: статус={}, тело={}", e.getStatusCode(), e.getResponseBodyAsString());
     } catch (ResourceAccessException ex) {
+      record(sample, "hit", "IO_ERROR");
       log.error("Ошибка доступа к сервису статистики: {}", ex.getMessage());
     } catch (Exception ex) {
+      record(sample, "hit", "UNKNOWN");
       log.error("Неизвестная ошибка при отправке запроса /hit", ex);
     }
+    return false;
   }
 
+  // При недоступном сервисе статистики отвечаем сразу последними известными значениями, а не ждём таймаута
   public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique) {
+    if (!circuitBreaker.tryAcquire()) {
+      // запрос не отправлялся, поэтому в таймер не попадает
+      meterRegistry.counter("stats.client.errors", "operation", "stats", "outcome", "CIRCUIT_OPEN").increment();
+      return staleStats.lookup(uris, start, end, unique);
+    }
+
+    Timer.Sample sample = Timer.start(meterRegistry);
     try {
       UriComponentsBuilder uriBuilder = UriComponentsBuilder
               .fromHttpUrl(statsServerUrl + "/stats")
@@ -86,17 +328,55 @@ public class Client {
               ViewStatsDto[].class
       );
 
-      return Optional.ofNullable(response.getBody())
+      List<ViewStatsDto> stats = Optional.ofNullable(response.getBody())
               .map(Arrays::asList)
               .orElse(Collections.emptyList());
-    } catch (HttpClientErrorException | HttpServerErrorException ex) {
+      record(sample, "stats", OUTCOME_SUCCESS);
+      circuitBreaker.onSuccess();
+      staleStats.remember(stats, start, end, unique);
+      return stats;
+    } catch (HttpClientErrorException ex) {
+      // сервис ответил, ошибка в самом запросе
+      record(sample, "stats", "CLIENT_ERROR");
+      circuitBreaker.onSuccess();
+      log.error("Ошибка при получении статистики: статус={}, тело={}", ex.getStatusCode(), ex.getResponseBodyAsString());
+      return Collections.emptyList();
+    } catch (HttpServerErrorException ex) {
+      record(sample, "stats", "SERVER_ERROR");
+      circuitBreaker.onFailure();
       log.error("Ошибка при получении статистики: статус={}, тело={}", ex.getStatusCode(), ex.getResponseBodyAsString());
     } catch (ResourceAccessException ex) {
+      record(sample, "stats", "IO_ERROR");
+      circuitBreaker.onFailure();
       log.error("Ошибка доступа к сервису статистики: {}", ex.getMessage());
     } catch (Exception ex) {
+      record(sample, "stats", "UNKNOWN");
+      circuitBreaker.onFailure();
       log.error("Неизвестная ошибка при получении статистики", ex);
     }
 
-    return Collections.emptyList();
+    return staleStats.lookup(uris, start, end, unique);
+  }
+
+  public CircuitState getCircuitState() {
+    return circuitBreaker.getState();
+  }
+
+  private void record(Timer.Sample sample, String operation, String outcome) {
+    sample.stop(Timer.builder("stats.client.requests")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    if (!OUTCOME_SUCCESS.equals(outcome)) {
+      Counter.builder("stats.client.errors")
+              .tag("operation", operation)
+              .tag("outcome", outcome)
+              .register(meterRegistry)
+              .increment();
+    }
+  }
+
+  private String outcomeOf(HttpStatusCodeException ex) {
+    return ex.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
   }
 }
@@ -0,0 +1,67 @@
+package ru.practicum;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ru.practicum.dto.dto.ViewStatsDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Последние полученные от сервиса статистики значения по uri; отдаются, пока сервис недоступен.
+// Значение подходит только запросу с тем же началом интервала и концом не раньше записанного:
+// тогда это нижняя оценка, а не число за чужой период. Даты сравниваются как строки в формате клиента.
+// При переполнении вытесняются редко запрашиваемые uri, старые значения истекают по ttl
+public class StaleStatsStore {
+  private final Cache<Key, Entry> stats;
+
+  private record Key(String uri, String start, boolean unique) {
+  }
+
+  private record Entry(String end, ViewStatsDto stat) {
+  }
+
+  public StaleStatsStore(int maxSize, Duration ttl) {
+    stats = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .build();
+  }
+
+  public void remember(List<ViewStatsDto> result, String start, String end, boolean unique) {
+    for (ViewStatsDto stat : result) {
+      stats.put(new Key(stat.getUri(), start, unique), new Entry(end, stat));
+    }
+  }
+
+  public List<ViewStatsDto> lookup(List<String> uris, String start, String end, boolean unique) {
+    List<ViewStatsDto> result = new ArrayList<>();
+    if (uris == null || uris.isEmpty()) {
+      stats.asMap().forEach((key, entry) -> {
+        if (key.unique() == unique && Objects.equals(key.start(), start) && covers(entry, end)) {
+          result.add(entry.stat());
+        }
+      });
+      return result;
+    }
+    for (String uri : uris) {
+      Entry entry = stats.getIfPresent(new Key(uri, start, unique));
+      if (entry != null && covers(entry, end)) {
+        result.add(entry.stat());
+      }
+    }
+    return result;
+  }
+
+  public long size() {
+    return stats.estimatedSize();
+  }
+
+  private boolean covers(Entry entry, String end) {
+    if (entry.end() == null || end == null) {
+      return Objects.equals(entry.end(), end);
+    }
+    return entry.end().compareTo(end) <= 0;
+  }
+}
@@ -1,25 +1,97 @@
 package ru.practicum;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+
 @Configuration
 public class StatClientConfig {
 
-  @Value("${rest.client.connect-timeout}")
-  private int connectTimeout;
+  @Value("${stats.client.http.max-connections:50}")
+  private int maxConnections;
+
+  @Value("${stats.client.http.connect-timeout-ms:1000}")
+  private long connectTimeoutMs;
+
+  @Value("${stats.client.http.connection-request-timeout-ms:500}")
+  private long connectionRequestTimeoutMs;
+
+  @Value("${stats.client.http.idle-timeout-ms:30000}")
+  private long idleTimeoutMs;
+
+  @Value("${stats.client.http.stats-timeout-ms:2000}")
+  private long statsTimeoutMs;
+
+  @Value("${stats.client.http.hits-timeout-ms:5000}")
+  private long hitsTimeoutMs;
+
+  // Все запросы идут на один сервер статистики, поэтому лимит пула на маршрут совпадает с общим
+  @Bean(destroyMethod = "close")
+  public PoolingHttpClientConnectionManager statsConnectionManager(MeterRegistry meterRegistry) {
+    PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                    .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                    .build())
+            .build();
 
-  @Value("${rest.client.read-timeout}")
-  private int readTimeout;
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "stats-client").bindTo(meterRegistry);
+    return connectionManager;
+  }
 
+  // Перехватчики из приложения видят каждое обращение к сервису статистики, например для подсчёта вызовов на запрос
   @Bean
-  public RestTemplate restTemplate() {
-    SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-    factory.setConnectTimeout(connectTimeout);
-    factory.setReadTimeout(readTimeout);
-    return new RestTemplate(factory);
+  public RestTemplate restTemplate(PoolingHttpClientConnectionManager statsConnectionManager,
+                                   ObjectProvider<ClientHttpRequestInterceptor> interceptors) {
+    HttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(statsConnectionManager)
+            .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeoutMs))
+            .evictExpiredConnections()
+            .build();
+
+    RequestConfig statsConfig = requestConfig(statsTimeoutMs);
+    RequestConfig hitsConfig = requestConfig(hitsTimeoutMs);
+
+    // Таймаут ответа выбирается по операции: чтение статистики блокирует запрос пользователя,
+    // отправка хитов идёт из фонового потока и может ждать дольше
+    HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+    factory.setHttpContextFactory((method, uri) -> {
+      HttpClientContext context = HttpClientContext.create();
+      context.setRequestConfig(isStatsRequest(uri) ? statsConfig : hitsConfig);
+      return context;
+    });
+    RestTemplate restTemplate = new RestTemplate(factory);
+    restTemplate.setInterceptors(interceptors.orderedStream().toList());
+    return restTemplate;
+  }
+
+  private RequestConfig requestConfig(long responseTimeoutMs) {
+    return RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+            .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+            .build();
+  }
+
+  private boolean isStatsRequest(URI uri) {
+    return uri.getPath() != null && uri.getPath().endsWith("/stats");
   }
 }
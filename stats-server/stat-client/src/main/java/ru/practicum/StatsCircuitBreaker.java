@@ -0,0 +1,68 @@
+package ru.practicum;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Размыкается после failureThreshold ошибок подряд; через openDurationMs пропускает один пробный запрос
+// и по его результату либо замыкается, либо снова размыкается
+@Slf4j
+public class StatsCircuitBreaker {
+  private final int failureThreshold;
+  private final long openDurationNanos;
+
+  private CircuitState state = CircuitState.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean probeInFlight;
+
+  public StatsCircuitBreaker(int failureThreshold, long openDurationMs) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationNanos = openDurationMs * 1_000_000L;
+  }
+
+  public synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - openedAt < openDurationNanos) {
+          return false;
+        }
+        state = CircuitState.HALF_OPEN;
+        probeInFlight = true;
+        log.info("Пробный запрос к сервису статистики");
+        return true;
+      default:
+        if (probeInFlight) {
+          return false;
+        }
+        probeInFlight = true;
+        return true;
+    }
+  }
+
+  public synchronized void onSuccess() {
+    if (state != CircuitState.CLOSED) {
+      log.info("Сервис статистики снова доступен, запросы возобновлены");
+    }
+    state = CircuitState.CLOSED;
+    consecutiveFailures = 0;
+    probeInFlight = false;
+  }
+
+  public synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      if (state != CircuitState.OPEN) {
+        log.warn("Сервис статистики недоступен ({} ошибок подряд), запросы приостановлены на {} мс",
+                consecutiveFailures, openDurationNanos / 1_000_000L);
+      }
+      state = CircuitState.OPEN;
+      openedAt = System.nanoTime();
+      probeInFlight = false;
+    }
+  }
+
+  public synchronized CircuitState getState() {
+    return state;
+  }
+}
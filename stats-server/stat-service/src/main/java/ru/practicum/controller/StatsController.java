@@ -3,11 +3,13 @@ package ru.practicum.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.dto.ViewStatsDto;
 import ru.practicum.service.StatsService;
 import ru.practicum.dto.dto.EndpointHitDto;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -22,11 +24,26 @@ public class StatsController {
     statsService.saveHit(hitDto);
   }
 
+  @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.CREATED)
+  public void saveHits(@RequestBody List<EndpointHitDto> hitDtos) {
+    int saved = statsService.saveHits(hitDtos);
+    log.debug("Сохранено хитов: {}", saved);
+  }
+
+  @PostMapping(value = "/hits", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  @ResponseStatus(HttpStatus.CREATED)
+  public void saveHitsStream(InputStream body) {
+    int saved = statsService.saveHits(body);
+    log.debug("Сохранено хитов: {}", saved);
+  }
+
   @GetMapping("/stats")
   public List<ViewStatsDto> getStats(@RequestParam String start,
                                      @RequestParam String end,
                                      @RequestParam(required = false) List<String> uris,
-                                     @RequestParam(defaultValue = "false") boolean unique) {
-    return statsService.getStats(start, end, uris, unique);
+                                     @RequestParam(defaultValue = "false") boolean unique,
+                                     @RequestParam(required = false) Boolean approximate) {
+    return statsService.getStats(start, end, uris, unique, approximate);
   }
 }
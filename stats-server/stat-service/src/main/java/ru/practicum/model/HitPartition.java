@@ -0,0 +1,22 @@
+package ru.practicum.model;
+
+import java.time.LocalDate;
+
+// Секция endpoint_hits с диапазоном [from, to); границы однозначно задаются именем
+public record HitPartition(String name, LocalDate from, LocalDate to) {
+  public static final String NAME_PREFIX = "endpoint_hits_p";
+
+  public static HitPartition of(PartitionInterval interval, LocalDate start) {
+    LocalDate from = interval.floor(start);
+    return new HitPartition(NAME_PREFIX + interval.suffix(from), from, interval.next(from));
+  }
+
+  public static HitPartition fromName(String name) {
+    String suffix = name.substring(NAME_PREFIX.length());
+    return of(PartitionInterval.ofSuffix(suffix), PartitionInterval.ofSuffix(suffix).parse(suffix));
+  }
+
+  public boolean overlaps(HitPartition other) {
+    return from.isBefore(other.to) && other.from.isBefore(to);
+  }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "hit_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uq_hit_rollups_bucket",
+                columnNames = {"granularity", "app", "uri", "bucket_start"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitRollup {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 10)
+  private RollupGranularity granularity;
+
+  @Column(nullable = false)
+  private String app;
+
+  @Column(nullable = false)
+  private String uri;
+
+  @Column(name = "bucket_start", nullable = false)
+  private LocalDateTime bucketStart;
+
+  @Column(nullable = false)
+  private long hits;
+}
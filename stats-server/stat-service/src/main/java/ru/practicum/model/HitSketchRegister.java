@@ -0,0 +1,40 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "hit_sketch_registers",
+        uniqueConstraints = @UniqueConstraint(name = "uq_hit_sketch_registers",
+                columnNames = {"granularity", "app", "uri", "bucket_start", "register_index"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitSketchRegister {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 10)
+  private RollupGranularity granularity;
+
+  @Column(nullable = false)
+  private String app;
+
+  @Column(nullable = false)
+  private String uri;
+
+  @Column(name = "bucket_start", nullable = false)
+  private LocalDateTime bucketStart;
+
+  @Column(name = "register_index", nullable = false)
+  private int registerIndex;
+
+  @Column(name = "register_value", nullable = false)
+  private int registerValue;
+}
@@ -0,0 +1,42 @@
+package ru.practicum.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+// Шаг секционирования endpoint_hits; по длине суффикса в имени секции восстанавливаются её границы
+public enum PartitionInterval {
+  DAY(ChronoUnit.DAYS, DateTimeFormatter.ofPattern("yyyyMMdd")),
+  MONTH(ChronoUnit.MONTHS, DateTimeFormatter.ofPattern("yyyyMM"));
+
+  private final ChronoUnit unit;
+  private final DateTimeFormatter suffixFormat;
+
+  PartitionInterval(ChronoUnit unit, DateTimeFormatter suffixFormat) {
+    this.unit = unit;
+    this.suffixFormat = suffixFormat;
+  }
+
+  public LocalDate floor(LocalDate date) {
+    return this == MONTH ? date.with(TemporalAdjusters.firstDayOfMonth()) : date;
+  }
+
+  public LocalDate next(LocalDate start) {
+    return start.plus(1, unit);
+  }
+
+  public String suffix(LocalDate start) {
+    return start.format(suffixFormat);
+  }
+
+  public static PartitionInterval ofSuffix(String suffix) {
+    return suffix.length() == 6 ? MONTH : DAY;
+  }
+
+  public LocalDate parse(String suffix) {
+    return this == MONTH
+            ? LocalDate.parse(suffix + "01", DAY.suffixFormat)
+            : LocalDate.parse(suffix, suffixFormat);
+  }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+  DAY(ChronoUnit.DAYS),
+  HOUR(ChronoUnit.HOURS),
+  MINUTE(ChronoUnit.MINUTES);
+
+  private final ChronoUnit unit;
+
+  RollupGranularity(ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  public LocalDateTime floor(LocalDateTime time) {
+    return time.truncatedTo(unit);
+  }
+
+  public LocalDateTime ceil(LocalDateTime time) {
+    LocalDateTime floor = floor(time);
+    return floor.equals(time) ? floor : floor.plus(1, unit);
+  }
+
+  public String sqlUnit() {
+    return name().toLowerCase();
+  }
+}
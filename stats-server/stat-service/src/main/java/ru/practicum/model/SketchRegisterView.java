@@ -0,0 +1,12 @@
+package ru.practicum.model;
+
+public interface SketchRegisterView {
+
+  String getApp();
+
+  String getUri();
+
+  Integer getRegisterIndex();
+
+  Integer getRegisterValue();
+}
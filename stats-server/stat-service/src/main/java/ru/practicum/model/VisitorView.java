@@ -0,0 +1,10 @@
+package ru.practicum.model;
+
+public interface VisitorView {
+
+  String getApp();
+
+  String getUri();
+
+  String getIp();
+}
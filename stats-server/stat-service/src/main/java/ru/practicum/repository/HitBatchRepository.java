@@ -0,0 +1,145 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HitRollup;
+import ru.practicum.model.HitSketchRegister;
+import ru.practicum.model.RollupGranularity;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class HitBatchRepository {
+  private static final String INSERT_HIT =
+          "INSERT INTO endpoint_hits (app, uri, ip, visit_time) VALUES (?, ?, ?, ?)";
+
+  private static final String UPSERT_ROLLUP =
+          "INSERT INTO hit_rollups (granularity, app, uri, bucket_start, hits) VALUES (?, ?, ?, ?, ?) " +
+          "ON CONFLICT (granularity, app, uri, bucket_start) " +
+          "DO UPDATE SET hits = hit_rollups.hits + EXCLUDED.hits";
+
+  private static final String REBUILD_ROLLUP =
+          "INSERT INTO hit_rollups (granularity, app, uri, bucket_start, hits) " +
+          "SELECT '%1$s', app, uri, date_trunc('%2$s', visit_time), COUNT(*) " +
+          "FROM endpoint_hits " +
+          "GROUP BY app, uri, date_trunc('%2$s', visit_time)";
+
+  private static final String UPSERT_SKETCH_REGISTER =
+          "INSERT INTO hit_sketch_registers (granularity, app, uri, bucket_start, register_index, register_value) " +
+          "VALUES (?, ?, ?, ?, ?, ?) " +
+          "ON CONFLICT (granularity, app, uri, bucket_start, register_index) " +
+          "DO UPDATE SET register_value = EXCLUDED.register_value " +
+          "WHERE hit_sketch_registers.register_value < EXCLUDED.register_value";
+
+  private static final String SAVE_SKETCH_PRECISION =
+          "INSERT INTO hit_sketch_settings (id, register_precision) VALUES (1, ?) " +
+          "ON CONFLICT (id) DO UPDATE SET register_precision = EXCLUDED.register_precision";
+
+  // Параллельные пачки блокируют общие строки агрегатов в одном порядке, иначе возможна взаимная блокировка
+  private static final Comparator<HitRollup> ROLLUP_LOCK_ORDER = Comparator
+          .comparing(HitRollup::getGranularity)
+          .thenComparing(HitRollup::getApp)
+          .thenComparing(HitRollup::getUri)
+          .thenComparing(HitRollup::getBucketStart);
+
+  private static final Comparator<HitSketchRegister> REGISTER_LOCK_ORDER = Comparator
+          .comparing(HitSketchRegister::getGranularity)
+          .thenComparing(HitSketchRegister::getApp)
+          .thenComparing(HitSketchRegister::getUri)
+          .thenComparing(HitSketchRegister::getBucketStart)
+          .thenComparingInt(HitSketchRegister::getRegisterIndex);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Value("${stats.hits.jdbc-batch-size:1000}")
+  private int batchSize;
+
+  // IDENTITY-ключ не даёт Hibernate батчить вставки, поэтому пишем напрямую через JDBC batch
+  public void saveAll(List<EndpointHit> hits) {
+    jdbcTemplate.batchUpdate(INSERT_HIT, hits, batchSize, (ps, hit) -> {
+      ps.setString(1, hit.getApp());
+      ps.setString(2, hit.getUri());
+      ps.setString(3, hit.getIp());
+      ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+    });
+  }
+
+  public void upsertRollups(List<HitRollup> increments) {
+    List<HitRollup> ordered = increments.stream().sorted(ROLLUP_LOCK_ORDER).toList();
+    jdbcTemplate.batchUpdate(UPSERT_ROLLUP, ordered, batchSize, (ps, rollup) -> {
+      ps.setString(1, rollup.getGranularity().name());
+      ps.setString(2, rollup.getApp());
+      ps.setString(3, rollup.getUri());
+      ps.setTimestamp(4, Timestamp.valueOf(rollup.getBucketStart()));
+      ps.setLong(5, rollup.getHits());
+    });
+  }
+
+  // Пересчёт идёт в одной транзакции с этой блокировкой: новые хиты ждут его окончания и не теряются
+  // и не учитываются дважды между очисткой и заполнением, читатели до фиксации видят прежние агрегаты
+  public void lockHitsForRebuild() {
+    jdbcTemplate.execute("LOCK TABLE endpoint_hits IN SHARE MODE");
+  }
+
+  public void rebuildRollups() {
+    jdbcTemplate.update("DELETE FROM hit_rollups");
+    for (RollupGranularity granularity : RollupGranularity.values()) {
+      jdbcTemplate.update(String.format(REBUILD_ROLLUP, granularity.name(), granularity.sqlUnit()));
+    }
+  }
+
+  public void upsertSketchRegisters(List<HitSketchRegister> registers) {
+    List<HitSketchRegister> ordered = registers.stream().sorted(REGISTER_LOCK_ORDER).toList();
+    jdbcTemplate.batchUpdate(UPSERT_SKETCH_REGISTER, ordered, batchSize, (ps, register) -> {
+      ps.setString(1, register.getGranularity().name());
+      ps.setString(2, register.getApp());
+      ps.setString(3, register.getUri());
+      ps.setTimestamp(4, Timestamp.valueOf(register.getBucketStart()));
+      ps.setInt(5, register.getRegisterIndex());
+      ps.setInt(6, register.getRegisterValue());
+    });
+  }
+
+  public Optional<Integer> findSketchPrecision() {
+    return jdbcTemplate.query("SELECT register_precision FROM hit_sketch_settings WHERE id = 1",
+            (rs, rowNum) -> rs.getInt(1)).stream().findFirst();
+  }
+
+  public void saveSketchPrecision(int precision) {
+    jdbcTemplate.update(SAVE_SKETCH_PRECISION, precision);
+  }
+
+  // Читаем endpoint_hits курсором и отдаём пачками, чтобы не поднимать всю таблицу в память
+  public void forEachHitChunk(Consumer<List<EndpointHit>> handler) {
+    List<EndpointHit> chunk = new ArrayList<>(batchSize);
+    jdbcTemplate.query(connection -> {
+      PreparedStatement statement = connection.prepareStatement("SELECT app, uri, ip, visit_time FROM endpoint_hits");
+      statement.setFetchSize(batchSize);
+      return statement;
+    }, rs -> {
+      chunk.add(EndpointHit.builder()
+              .app(rs.getString("app"))
+              .uri(rs.getString("uri"))
+              .ip(rs.getString("ip"))
+              .timestamp(rs.getTimestamp("visit_time").toLocalDateTime())
+              .build());
+      if (chunk.size() == batchSize) {
+        handler.accept(List.copyOf(chunk));
+        chunk.clear();
+      }
+    });
+    if (!chunk.isEmpty()) {
+      handler.accept(chunk);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.HitPartition;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+// DDL секционирования endpoint_hits; имена секций строятся внутри сервиса, поэтому подставляются в SQL напрямую
+@Repository
+@RequiredArgsConstructor
+public class HitPartitionRepository {
+  private static final String DEFAULT_PARTITION = "endpoint_hits_default";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public boolean isPostgres() {
+    return "PostgreSQL".equals(jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+  }
+
+  public boolean isPartitioned() {
+    return jdbcTemplate.queryForList("SELECT relkind::text FROM pg_class WHERE oid = to_regclass('endpoint_hits')",
+            String.class).contains("p");
+  }
+
+  public Optional<LocalDate> findOldestDefaultHitDate() {
+    Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(visit_time) FROM " + DEFAULT_PARTITION, Timestamp.class);
+    return Optional.ofNullable(oldest).map(timestamp -> timestamp.toLocalDateTime().toLocalDate());
+  }
+
+  public List<HitPartition> findPartitions() {
+    return jdbcTemplate.queryForList(
+                    "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "WHERE i.inhparent = to_regclass('endpoint_hits') AND c.relname LIKE ? ORDER BY c.relname",
+                    String.class, HitPartition.NAME_PREFIX + "%")
+            .stream()
+            .map(HitPartition::fromName)
+            .toList();
+  }
+
+  // Хиты нужного диапазона, уже попавшие в секцию по умолчанию, переносятся в новую секцию,
+  // иначе PostgreSQL не даст её создать
+  @Transactional
+  public void createPartition(HitPartition partition) {
+    jdbcTemplate.execute("LOCK TABLE endpoint_hits IN ACCESS EXCLUSIVE MODE");
+    String range = "visit_time >= '" + partition.from() + "' AND visit_time < '" + partition.to() + "'";
+
+    Boolean misplaced = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE " + range + ")", Boolean.class);
+    if (!Boolean.TRUE.equals(misplaced)) {
+      createPartitionTable(partition);
+      return;
+    }
+
+    jdbcTemplate.execute("CREATE TEMP TABLE endpoint_hits_moved ON COMMIT DROP AS " +
+            "SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range);
+    jdbcTemplate.execute("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+    createPartitionTable(partition);
+    jdbcTemplate.execute("INSERT INTO endpoint_hits SELECT * FROM endpoint_hits_moved");
+  }
+
+  public void dropPartition(HitPartition partition) {
+    jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.name());
+  }
+
+  // Отсоединённая секция остаётся обычной таблицей и может быть выгружена в архив отдельно
+  public void detachPartition(HitPartition partition) {
+    jdbcTemplate.execute("ALTER TABLE endpoint_hits DETACH PARTITION " + partition.name());
+  }
+
+  public int deleteFromDefaultBefore(LocalDate cutoff) {
+    return jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE visit_time < ?",
+            Timestamp.valueOf(cutoff.atStartOfDay()));
+  }
+
+  private void createPartitionTable(HitPartition partition) {
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition.name() + " PARTITION OF endpoint_hits " +
+            "FOR VALUES FROM ('" + partition.from() + "') TO ('" + partition.to() + "')");
+  }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.dto.dto.ViewStatsDto;
+import ru.practicum.model.HitRollup;
+import ru.practicum.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitRollupRepository extends JpaRepository<HitRollup, Long> {
+  @Query("SELECT new ru.practicum.dto.dto.ViewStatsDto(r.app, r.uri, SUM(r.hits)) " +
+          "FROM HitRollup r " +
+          "WHERE r.granularity = :granularity " +
+          "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+          "AND (:uris IS NULL OR r.uri IN :uris) " +
+          "GROUP BY r.app, r.uri")
+  List<ViewStatsDto> sumHits(@Param("granularity") RollupGranularity granularity,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to,
+                             @Param("uris") List<String> uris);
+
+  @Query("SELECT new ru.practicum.dto.dto.ViewStatsDto(r.app, r.uri, SUM(r.hits)) " +
+          "FROM HitRollup r " +
+          "WHERE r.granularity = :granularity " +
+          "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+          "AND r.uri LIKE :uriPrefix " +
+          "GROUP BY r.app, r.uri")
+  List<ViewStatsDto> sumHitsByUriPrefix(@Param("granularity") RollupGranularity granularity,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("uriPrefix") String uriPrefix);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.model.HitSketchRegister;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.SketchRegisterView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitSketchRepository extends JpaRepository<HitSketchRegister, Long> {
+  @Query("SELECT r.app AS app, r.uri AS uri, r.registerIndex AS registerIndex, MAX(r.registerValue) AS registerValue " +
+          "FROM HitSketchRegister r " +
+          "WHERE r.granularity = :granularity " +
+          "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+          "AND (:uris IS NULL OR r.uri IN :uris) " +
+          "GROUP BY r.app, r.uri, r.registerIndex")
+  List<SketchRegisterView> mergeRegisters(@Param("granularity") RollupGranularity granularity,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("uris") List<String> uris);
+
+  @Query("SELECT r.app AS app, r.uri AS uri, r.registerIndex AS registerIndex, MAX(r.registerValue) AS registerValue " +
+          "FROM HitSketchRegister r " +
+          "WHERE r.granularity = :granularity " +
+          "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+          "AND r.uri LIKE :uriPrefix " +
+          "GROUP BY r.app, r.uri, r.registerIndex")
+  List<SketchRegisterView> mergeRegistersByUriPrefix(@Param("granularity") RollupGranularity granularity,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to,
+                                                     @Param("uriPrefix") String uriPrefix);
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.dto.dto.ViewStatsDto;
 import ru.practicum.model.EndpointHit;
+import ru.practicum.model.VisitorView;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -55,5 +56,38 @@ public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
           "ORDER BY COUNT(e) DESC")
   List<ViewStatsDto> getAllStatsForEventsWithoutTime();
 
+  @Query("SELECT new ru.practicum.dto.dto.ViewStatsDto(e.app, e.uri, COUNT(e)) " +
+          "FROM EndpointHit e " +
+          "WHERE e.timestamp >= :from AND e.timestamp < :to " +
+          "AND (:uris IS NULL OR e.uri IN :uris) " +
+          "GROUP BY e.app, e.uri")
+  List<ViewStatsDto> countHits(@Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("uris") List<String> uris);
+
+  @Query("SELECT new ru.practicum.dto.dto.ViewStatsDto(e.app, e.uri, COUNT(e)) " +
+          "FROM EndpointHit e " +
+          "WHERE e.timestamp >= :from AND e.timestamp < :to " +
+          "AND e.uri LIKE :uriPrefix " +
+          "GROUP BY e.app, e.uri")
+  List<ViewStatsDto> countHitsByUriPrefix(@Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("uriPrefix") String uriPrefix);
+
+  @Query("SELECT DISTINCT e.app AS app, e.uri AS uri, e.ip AS ip " +
+          "FROM EndpointHit e " +
+          "WHERE e.timestamp >= :from AND e.timestamp < :to " +
+          "AND (:uris IS NULL OR e.uri IN :uris)")
+  List<VisitorView> findVisitors(@Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("uris") List<String> uris);
+
+  @Query("SELECT DISTINCT e.app AS app, e.uri AS uri, e.ip AS ip " +
+          "FROM EndpointHit e " +
+          "WHERE e.timestamp >= :from AND e.timestamp < :to " +
+          "AND e.uri LIKE :uriPrefix")
+  List<VisitorView> findVisitorsByUriPrefix(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("uriPrefix") String uriPrefix);
 
 }
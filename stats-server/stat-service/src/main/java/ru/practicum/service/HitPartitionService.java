@@ -0,0 +1,139 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.model.HitPartition;
+import ru.practicum.model.PartitionInterval;
+import ru.practicum.repository.HitPartitionRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// endpoint_hits секционирована по visit_time (миграция V2): запросы за период читают только свои секции,
+// а устаревшие данные удаляются целой секцией вместо DELETE по всей таблице.
+// Агрегаты hit_rollups и hit_sketch_registers хранятся отдельно и при удалении секций не теряются
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "stats.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class HitPartitionService {
+  private final HitPartitionRepository hitPartitionRepository;
+
+  @Value("${stats.partitions.interval:MONTH}")
+  private PartitionInterval interval;
+
+  @Value("${stats.partitions.ahead:2}")
+  private int ahead;
+
+  // 0 - хранить хиты бессрочно
+  @Value("${stats.partitions.retention:0d}")
+  private Duration retention;
+
+  @Value("${stats.partitions.retention-mode:DROP}")
+  private RetentionMode retentionMode;
+
+  private volatile boolean active;
+
+  public enum RetentionMode {
+    DROP,
+    DETACH
+  }
+
+  // Выполняется после миграций и проверки схемы, но до того, как сервис начнёт принимать хиты
+  @PostConstruct
+  void init() {
+    if (!hitPartitionRepository.isPostgres() || !hitPartitionRepository.isPartitioned()) {
+      log.info("endpoint_hits не секционирована, обслуживание секций отключено");
+      return;
+    }
+
+    active = true;
+    maintain();
+  }
+
+  @Scheduled(cron = "${stats.partitions.maintenance-cron:0 5 0 * * *}")
+  public void maintain() {
+    if (!active) {
+      return;
+    }
+
+    LocalDate today = LocalDate.now();
+    LocalDate cutoff = retention.isZero() ? null : today.minusDays(retention.toDays());
+    List<HitPartition> existing = new ArrayList<>(hitPartitionRepository.findPartitions());
+
+    // хиты, накопившиеся в секции по умолчанию (в том числе после миграции), раскладываются по своим секциям;
+    // старше срока хранения - не раскладываются, а удаляются вместе с остальными устаревшими
+    LocalDate first = hitPartitionRepository.findOldestDefaultHitDate()
+            .filter(oldest -> oldest.isBefore(today))
+            .orElse(today);
+    if (cutoff != null && first.isBefore(cutoff)) {
+      first = cutoff;
+    }
+
+    for (HitPartition partition : plan(first, today)) {
+      if (existing.stream().noneMatch(partition::overlaps)) {
+        try {
+          hitPartitionRepository.createPartition(partition);
+          existing.add(partition);
+          log.info("Создана секция {} [{}, {})", partition.name(), partition.from(), partition.to());
+        } catch (DataAccessException e) {
+          log.warn("Не удалось создать секцию {}: {}", partition.name(), e.getMessage());
+        }
+      }
+    }
+
+    if (cutoff != null) {
+      applyRetention(existing, cutoff);
+    }
+  }
+
+  // Секции от первой даты до текущей и ещё ahead интервалов вперёд
+  private List<HitPartition> plan(LocalDate first, LocalDate today) {
+    LocalDate last = interval.floor(today);
+    for (int i = 0; i < ahead; i++) {
+      last = interval.next(last);
+    }
+
+    List<HitPartition> partitions = new ArrayList<>();
+    for (LocalDate start = interval.floor(first); !start.isAfter(last); start = interval.next(start)) {
+      partitions.add(HitPartition.of(interval, start));
+    }
+    return partitions;
+  }
+
+  private void applyRetention(List<HitPartition> partitions, LocalDate cutoff) {
+    for (HitPartition partition : partitions) {
+      if (partition.to().isAfter(cutoff)) {
+        continue;
+      }
+      try {
+        if (retentionMode == RetentionMode.DETACH) {
+          hitPartitionRepository.detachPartition(partition);
+          log.info("Секция {} отсоединена для архивации", partition.name());
+        } else {
+          hitPartitionRepository.dropPartition(partition);
+          log.info("Секция {} удалена по сроку хранения", partition.name());
+        }
+      } catch (DataAccessException e) {
+        log.warn("Не удалось обработать устаревшую секцию {}: {}", partition.name(), e.getMessage());
+      }
+    }
+
+    if (retentionMode == RetentionMode.DROP) {
+      int deleted = hitPartitionRepository.deleteFromDefaultBefore(cutoff);
+      if (deleted > 0) {
+        log.info("Из секции по умолчанию удалено {} устаревших хитов", deleted);
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.service;
+
+import java.nio.charset.StandardCharsets;
+
+public class HyperLogLog {
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 16;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("Точность HyperLogLog должна быть от " + MIN_PRECISION + " до " + MAX_PRECISION);
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  // Стандартная ошибка HLL ~ 1.04 / sqrt(m), подбираем минимальное m = 2^p под заданную ошибку
+  public static int precisionFor(double relativeError) {
+    if (relativeError <= 0 || relativeError >= 1) {
+      throw new IllegalArgumentException("Допустимая ошибка должна быть в интервале (0, 1)");
+    }
+    double registersNeeded = Math.pow(1.04 / relativeError, 2);
+    int precision = (int) Math.ceil(Math.log(registersNeeded) / Math.log(2));
+    return Math.max(MIN_PRECISION, Math.min(MAX_PRECISION, precision));
+  }
+
+  // FNV-1a с финализатором из MurmurHash3: хорошее перемешивание для коротких строк вроде ip
+  public static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  public int registerIndex(long hash) {
+    return (int) (hash >>> (64 - precision));
+  }
+
+  public int registerValue(long hash) {
+    long rest = hash << precision;
+    return rest == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(rest) + 1;
+  }
+
+  public void add(String value) {
+    long hash = hash(value);
+    merge(registerIndex(hash), registerValue(hash));
+  }
+
+  public void merge(int index, int value) {
+    if (registers[index] < value) {
+      registers[index] = (byte) value;
+    }
+  }
+
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+
+    double alpha = 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * m / sum;
+
+    if (estimate <= 2.5 * m && zeros > 0) {
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+}
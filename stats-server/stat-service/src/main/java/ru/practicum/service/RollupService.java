@@ -0,0 +1,137 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HitRollup;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.repository.HitBatchRepository;
+import ru.practicum.repository.HitRollupRepository;
+import ru.practicum.repository.StatsRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+  private static final RollupGranularity[] LEVELS = RollupGranularity.values();
+
+  private final HitRollupRepository hitRollupRepository;
+  private final HitBatchRepository hitBatchRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final StatsRepository statsRepository;
+
+  // Отрезок диапазона: либо корзины одной гранулярности, либо сырые хиты (granularity == null)
+  record Segment(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+  }
+
+  public void record(List<EndpointHit> hits) {
+    Map<List<Object>, HitRollup> increments = new LinkedHashMap<>();
+
+    for (EndpointHit hit : hits) {
+      for (RollupGranularity granularity : LEVELS) {
+        LocalDateTime bucket = granularity.floor(hit.getTimestamp());
+        HitRollup rollup = increments.computeIfAbsent(List.of(granularity, hit.getApp(), hit.getUri(), bucket),
+                key -> HitRollup.builder()
+                        .granularity(granularity)
+                        .app(hit.getApp())
+                        .uri(hit.getUri())
+                        .bucketStart(bucket)
+                        .build());
+        rollup.setHits(rollup.getHits() + 1);
+      }
+    }
+
+    hitBatchRepository.upsertRollups(new ArrayList<>(increments.values()));
+  }
+
+  // Диапазон [start, end] включительно; хиты хранятся с точностью до секунды
+  public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+    return collect(start, end,
+            segment -> hitRollupRepository.sumHits(segment.granularity(), segment.from(), segment.to(), uris),
+            segment -> statsRepository.countHits(segment.from(), segment.to(), uris));
+  }
+
+  public List<ViewStatsDto> getStatsByUriPrefix(LocalDateTime start, LocalDateTime end, String uriPrefix) {
+    String pattern = uriPrefix + "%";
+    return collect(start, end,
+            segment -> hitRollupRepository.sumHitsByUriPrefix(segment.granularity(), segment.from(), segment.to(), pattern),
+            segment -> statsRepository.countHitsByUriPrefix(segment.from(), segment.to(), pattern));
+  }
+
+  public void rebuild() {
+    transactionTemplate.executeWithoutResult(status -> {
+      hitBatchRepository.lockHitsForRebuild();
+      hitBatchRepository.rebuildRollups();
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void initialize() {
+    if (hitRollupRepository.count() == 0 && statsRepository.count() > 0) {
+      log.info("Таблица агрегатов пуста, пересчитываем её по endpoint_hits");
+      rebuild();
+    }
+  }
+
+  static List<Segment> plan(LocalDateTime from, LocalDateTime to) {
+    List<Segment> segments = new ArrayList<>();
+    plan(from, to, 0, segments);
+    return segments;
+  }
+
+  // Крупные корзины в середине диапазона, края добираем более мелкими, остаток меньше минуты - по сырым хитам
+  private static void plan(LocalDateTime from, LocalDateTime to, int level, List<Segment> segments) {
+    if (!from.isBefore(to)) {
+      return;
+    }
+    if (level == LEVELS.length) {
+      segments.add(new Segment(null, from, to));
+      return;
+    }
+
+    RollupGranularity granularity = LEVELS[level];
+    LocalDateTime first = granularity.ceil(from);
+    LocalDateTime last = granularity.floor(to);
+
+    if (!first.isBefore(last)) {
+      plan(from, to, level + 1, segments);
+      return;
+    }
+
+    plan(from, first, level + 1, segments);
+    segments.add(new Segment(granularity, first, last));
+    plan(last, to, level + 1, segments);
+  }
+
+  private List<ViewStatsDto> collect(LocalDateTime start, LocalDateTime end,
+                                     Function<Segment, List<ViewStatsDto>> rollupQuery,
+                                     Function<Segment, List<ViewStatsDto>> rawQuery) {
+    Map<List<String>, Long> hits = new LinkedHashMap<>();
+
+    for (Segment segment : plan(start, end.plusSeconds(1))) {
+      List<ViewStatsDto> part = segment.granularity() != null
+              ? rollupQuery.apply(segment)
+              : rawQuery.apply(segment);
+      part.forEach(stat -> hits.merge(List.of(stat.getApp(), stat.getUri()), stat.getHits(), Long::sum));
+    }
+
+    return hits.entrySet().stream()
+            .map(entry -> new ViewStatsDto(entry.getKey().get(0), entry.getKey().get(1), entry.getValue()))
+            .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+            .collect(Collectors.toList());
+  }
+}
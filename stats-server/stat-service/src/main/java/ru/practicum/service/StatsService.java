@@ -1,33 +1,106 @@
 package ru.practicum.service;
 import java.net.URLDecoder;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.dto.EndpointHitDto;
 import ru.practicum.dto.dto.ViewStatsDto;
 import ru.practicum.exception.BadRequestException;
 import ru.practicum.mapper.EndpointHitMapper;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.repository.HitBatchRepository;
 import ru.practicum.repository.StatsRepository;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class StatsService {
   private final StatsRepository statsRepository;
+  private final HitBatchRepository hitBatchRepository;
+  private final RollupService rollupService;
+  private final UniqueSketchService uniqueSketchService;
+  private final ObjectMapper objectMapper;
+
+  @Value("${stats.hits.jdbc-batch-size:1000}")
+  private int batchSize;
+
+  @Value("${stats.rollup.enabled:true}")
+  private boolean rollupEnabled;
+
+  @Value("${stats.hll.enabled:false}")
+  private boolean sketchEnabled;
+
+  @Value("${stats.hll.approximate-by-default:false}")
+  private boolean approximateByDefault;
+
   private static final LocalDateTime UNIX_EPOCH_START = LocalDateTime.of(1970, 1, 1, 0, 0);
 
   @Transactional
   public void saveHit(EndpointHitDto hitDto) {
-    statsRepository.save(EndpointHitMapper.toEndpointHit(hitDto));
+    EndpointHit hit = statsRepository.save(EndpointHitMapper.toEndpointHit(hitDto));
+    if (rollupEnabled) {
+      rollupService.record(List.of(hit));
+    }
+    if (sketchEnabled) {
+      uniqueSketchService.record(List.of(hit));
+    }
   }
 
-  public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique) {
+  @Transactional
+  public int saveHits(List<EndpointHitDto> hitDtos) {
+    List<EndpointHit> hits = hitDtos.stream()
+            .map(this::toEndpointHit)
+            .toList();
+    persist(hits);
+    return hits.size();
+  }
+
+  // NDJSON: по одному хиту в строке, читаем потоком и пишем пачками, не держа весь запрос в памяти
+  @Transactional
+  public int saveHits(InputStream ndjson) {
+    int saved = 0;
+    List<EndpointHit> batch = new ArrayList<>(batchSize);
+
+    try (MappingIterator<EndpointHitDto> iterator = objectMapper.readerFor(EndpointHitDto.class).readValues(ndjson)) {
+      while (iterator.hasNextValue()) {
+        batch.add(toEndpointHit(iterator.nextValue()));
+        if (batch.size() == batchSize) {
+          persist(batch);
+          saved += batch.size();
+          batch.clear();
+        }
+      }
+    } catch (IOException e) {
+      throw new BadRequestException("Некорректное тело запроса: " + e.getMessage());
+    }
+
+    persist(batch);
+    return saved + batch.size();
+  }
+
+  private void persist(List<EndpointHit> hits) {
+    hitBatchRepository.saveAll(hits);
+    if (rollupEnabled) {
+      rollupService.record(hits);
+    }
+    if (sketchEnabled) {
+      uniqueSketchService.record(hits);
+    }
+  }
+
+  public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique, Boolean approximate) {
     LocalDateTime startDate = (start != null)
             ? parseDateTime(start)
             : UNIX_EPOCH_START; // взяла самую позднюю дату
@@ -40,23 +113,47 @@ public class StatsService {
       throw new BadRequestException("Дата начала не может быть позже даты конца");
     }
 
+    // приближённый подсчёт уникальных посетителей по HyperLogLog включается явно
+    boolean useSketch = unique && sketchEnabled
+            && (approximate != null ? approximate : approximateByDefault);
+
     List<ViewStatsDto> dtos;
 
     if (uris != null && uris.size() == 1 && "/events".equals(uris.get(0)) && start == null && end == null) {
       dtos = statsRepository.getAllStatsForEventsWithoutTime();
     } else if (uris != null && uris.size() == 1 && "/events".equals(uris.get(0))) {
-      dtos = unique
-              ? statsRepository.getStatsUniqueForAllEvents(startDate, endDate)
-              : statsRepository.getStatsForAllEvents(startDate, endDate);
+      if (useSketch) {
+        dtos = uniqueSketchService.getStatsUniqueByUriPrefix(startDate, endDate, "/events");
+      } else if (unique) {
+        dtos = statsRepository.getStatsUniqueForAllEvents(startDate, endDate);
+      } else if (rollupEnabled) {
+        dtos = rollupService.getStatsByUriPrefix(startDate, endDate, "/events");
+      } else {
+        dtos = statsRepository.getStatsForAllEvents(startDate, endDate);
+      }
     } else {
-      dtos = unique
-              ? statsRepository.getStatsUnique(startDate, endDate, uris)
-              : statsRepository.getStats(startDate, endDate, uris);
+      if (useSketch) {
+        dtos = uniqueSketchService.getStatsUnique(startDate, endDate, uris);
+      } else if (unique) {
+        dtos = statsRepository.getStatsUnique(startDate, endDate, uris);
+      } else if (rollupEnabled) {
+        dtos = rollupService.getStats(startDate, endDate, uris);
+      } else {
+        dtos = statsRepository.getStats(startDate, endDate, uris);
+      }
     }
 
     return dtos;
   }
 
+  private EndpointHit toEndpointHit(EndpointHitDto hitDto) {
+    try {
+      return EndpointHitMapper.toEndpointHit(hitDto);
+    } catch (DateTimeParseException | NullPointerException e) {
+      throw new BadRequestException("Неверный формат хита для uri " + hitDto.getUri());
+    }
+  }
+
   private LocalDateTime parseDateTime(String dateTime) {
     try {
       String decoded = URLDecoder.decode(dateTime, StandardCharsets.UTF_8);
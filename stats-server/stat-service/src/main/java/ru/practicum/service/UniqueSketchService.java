@@ -0,0 +1,152 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.dto.ViewStatsDto;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HitSketchRegister;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.SketchRegisterView;
+import ru.practicum.model.VisitorView;
+import ru.practicum.repository.HitBatchRepository;
+import ru.practicum.repository.HitSketchRepository;
+import ru.practicum.repository.StatsRepository;
+import ru.practicum.service.RollupService.Segment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UniqueSketchService {
+  private final HitSketchRepository hitSketchRepository;
+  private final HitBatchRepository hitBatchRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final StatsRepository statsRepository;
+
+  @Value("${stats.hll.enabled:false}")
+  private boolean enabled;
+
+  @Value("${stats.hll.relative-error:0.03}")
+  private double relativeError;
+
+  public int getPrecision() {
+    return HyperLogLog.precisionFor(relativeError);
+  }
+
+  public void record(List<EndpointHit> hits) {
+    HyperLogLog sketch = new HyperLogLog(getPrecision());
+    Map<List<Object>, HitSketchRegister> registers = new LinkedHashMap<>();
+
+    for (EndpointHit hit : hits) {
+      long hash = HyperLogLog.hash(hit.getIp());
+      int index = sketch.registerIndex(hash);
+      int value = sketch.registerValue(hash);
+
+      for (RollupGranularity granularity : RollupGranularity.values()) {
+        LocalDateTime bucket = granularity.floor(hit.getTimestamp());
+        HitSketchRegister register = registers.computeIfAbsent(
+                List.of(granularity, hit.getApp(), hit.getUri(), bucket, index),
+                key -> HitSketchRegister.builder()
+                        .granularity(granularity)
+                        .app(hit.getApp())
+                        .uri(hit.getUri())
+                        .bucketStart(bucket)
+                        .registerIndex(index)
+                        .build());
+        register.setRegisterValue(Math.max(register.getRegisterValue(), value));
+      }
+    }
+
+    hitBatchRepository.upsertSketchRegisters(new ArrayList<>(registers.values()));
+  }
+
+  public List<ViewStatsDto> getStatsUnique(LocalDateTime start, LocalDateTime end, List<String> uris) {
+    return estimate(start, end,
+            segment -> hitSketchRepository.mergeRegisters(segment.granularity(), segment.from(), segment.to(), uris),
+            segment -> statsRepository.findVisitors(segment.from(), segment.to(), uris));
+  }
+
+  public List<ViewStatsDto> getStatsUniqueByUriPrefix(LocalDateTime start, LocalDateTime end, String uriPrefix) {
+    String pattern = uriPrefix + "%";
+    return estimate(start, end,
+            segment -> hitSketchRepository.mergeRegistersByUriPrefix(segment.granularity(), segment.from(), segment.to(), pattern),
+            segment -> statsRepository.findVisitorsByUriPrefix(segment.from(), segment.to(), pattern));
+  }
+
+  // Внутри транзакции хиты читаются курсором порциями по fetch size, а не целиком в память
+  public void rebuild() {
+    transactionTemplate.executeWithoutResult(status -> {
+      hitBatchRepository.lockHitsForRebuild();
+      hitSketchRepository.deleteAllInBatch();
+      hitBatchRepository.saveSketchPrecision(getPrecision());
+      hitBatchRepository.forEachHitChunk(this::record);
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void initialize() {
+    if (!enabled) {
+      // пока скетчи выключены, новые хиты в них не попадают; пустые регистры при включении пересчитаются целиком
+      if (hitSketchRepository.count() > 0) {
+        log.info("Скетчи уникальных посетителей выключены, удаляем устаревшие регистры");
+        hitSketchRepository.deleteAllInBatch();
+      }
+      return;
+    }
+    Optional<Integer> stored = hitBatchRepository.findSketchPrecision();
+    if (hitSketchRepository.count() == 0) {
+      if (statsRepository.count() > 0) {
+        log.info("Скетчи уникальных посетителей пусты, пересчитываем их по endpoint_hits");
+        rebuild();
+      } else if (stored.isEmpty() || stored.get() != getPrecision()) {
+        hitBatchRepository.saveSketchPrecision(getPrecision());
+      }
+    } else if (stored.isEmpty() || stored.get() != getPrecision()) {
+      // регистры другой точности нельзя объединять с новыми, оценка получится неверной
+      log.warn("Скетчи записаны с точностью {}, настроена {}, пересчитываем их по endpoint_hits",
+              stored.map(String::valueOf).orElse("неизвестной"), getPrecision());
+      rebuild();
+    }
+  }
+
+  // Скетчи объединяются по максимуму регистров, поэтому корзины разной гранулярности и сырые края сливаются без потерь
+  private List<ViewStatsDto> estimate(LocalDateTime start, LocalDateTime end,
+                                      Function<Segment, List<SketchRegisterView>> sketchQuery,
+                                      Function<Segment, List<VisitorView>> rawQuery) {
+    int precision = getPrecision();
+    Map<List<String>, HyperLogLog> sketches = new LinkedHashMap<>();
+
+    for (Segment segment : RollupService.plan(start, end.plusSeconds(1))) {
+      if (segment.granularity() != null) {
+        for (SketchRegisterView register : sketchQuery.apply(segment)) {
+          sketches.computeIfAbsent(List.of(register.getApp(), register.getUri()), key -> new HyperLogLog(precision))
+                  .merge(register.getRegisterIndex(), register.getRegisterValue());
+        }
+      } else {
+        for (VisitorView visitor : rawQuery.apply(segment)) {
+          sketches.computeIfAbsent(List.of(visitor.getApp(), visitor.getUri()), key -> new HyperLogLog(precision))
+                  .add(visitor.getIp());
+        }
+      }
+    }
+
+    return sketches.entrySet().stream()
+            .map(entry -> new ViewStatsDto(entry.getKey().get(0), entry.getKey().get(1), entry.getValue().estimate()))
+            .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+            .collect(Collectors.toList());
+  }
+}
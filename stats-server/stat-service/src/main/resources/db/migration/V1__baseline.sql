@@ -0,0 +1,34 @@
+-- Схема из прежнего schema.sql со всеми его ограничениями.
+-- На существующих базах эта версия не выполняется, а фиксируется как baseline: таблицы агрегатов и скетчей
+-- на них создаёт V2, NOT NULL - V4
+CREATE TABLE endpoint_hits (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  ip VARCHAR(15) NOT NULL,
+  visit_time TIMESTAMP(6) NOT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE hit_rollups (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('DAY', 'HOUR', 'MINUTE')),
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  bucket_start TIMESTAMP(6) NOT NULL,
+  hits BIGINT NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT uq_hit_rollups_bucket UNIQUE (granularity, app, uri, bucket_start)
+);
+
+CREATE TABLE hit_sketch_registers (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('DAY', 'HOUR', 'MINUTE')),
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  bucket_start TIMESTAMP(6) NOT NULL,
+  register_index INTEGER NOT NULL,
+  register_value INTEGER NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT uq_hit_sketch_registers UNIQUE (granularity, app, uri, bucket_start, register_index)
+);
@@ -0,0 +1,59 @@
+-- endpoint_hits становится секционированной по visit_time. Здесь создаются только родительская таблица
+-- и секция по умолчанию; секции по интервалам создаёт и удаляет HitPartitionService,
+-- перенося в них строки из секции по умолчанию
+DO $$
+BEGIN
+  IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('endpoint_hits')) = 'r' THEN
+    LOCK TABLE endpoint_hits IN ACCESS EXCLUSIVE MODE;
+    ALTER TABLE endpoint_hits RENAME TO endpoint_hits_legacy;
+    ALTER INDEX IF EXISTS endpoint_hits_pkey RENAME TO endpoint_hits_legacy_pkey;
+    ALTER SEQUENCE IF EXISTS endpoint_hits_id_seq RENAME TO endpoint_hits_legacy_id_seq;
+
+    CREATE TABLE endpoint_hits (LIKE endpoint_hits_legacy INCLUDING DEFAULTS INCLUDING IDENTITY,
+      PRIMARY KEY (id, visit_time)) PARTITION BY RANGE (visit_time);
+    CREATE TABLE endpoint_hits_default PARTITION OF endpoint_hits DEFAULT;
+
+    INSERT INTO endpoint_hits (id, app, uri, ip, visit_time)
+    SELECT id, app, uri, ip, visit_time FROM endpoint_hits_legacy;
+    PERFORM setval(pg_get_serial_sequence('endpoint_hits', 'id'),
+                   (SELECT COALESCE(MAX(id), 0) + 1 FROM endpoint_hits), false);
+    DROP TABLE endpoint_hits_legacy;
+  END IF;
+END
+$$;
+
+CREATE TABLE IF NOT EXISTS endpoint_hits_default PARTITION OF endpoint_hits DEFAULT;
+
+-- На базах, зафиксированных как baseline, V1 не выполнялась, и таблиц агрегатов и скетчей на них ещё нет
+CREATE TABLE IF NOT EXISTS hit_rollups (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('DAY', 'HOUR', 'MINUTE')),
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  bucket_start TIMESTAMP(6) NOT NULL,
+  hits BIGINT NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT uq_hit_rollups_bucket UNIQUE (granularity, app, uri, bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS hit_sketch_registers (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+  granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('DAY', 'HOUR', 'MINUTE')),
+  app VARCHAR(255) NOT NULL,
+  uri VARCHAR(255) NOT NULL,
+  bucket_start TIMESTAMP(6) NOT NULL,
+  register_index INTEGER NOT NULL,
+  register_value INTEGER NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT uq_hit_sketch_registers UNIQUE (granularity, app, uri, bucket_start, register_index)
+);
+
+-- Индексы на родительской таблице наследуются всеми секциями.
+-- Статистика по списку uri за период
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_uri_visit_time ON endpoint_hits (uri, visit_time);
+-- Статистика по префиксу uri или без фильтра по uri за период
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_visit_time_uri ON endpoint_hits (visit_time, uri);
+
+-- Корзины агрегатов по списку uri; уникальный ключ начинается с app и для этого не подходит
+CREATE INDEX IF NOT EXISTS idx_hit_rollups_uri ON hit_rollups (granularity, uri, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_hit_sketch_registers_uri ON hit_sketch_registers (granularity, uri, bucket_start);
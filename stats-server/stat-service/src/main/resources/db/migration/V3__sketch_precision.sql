@@ -0,0 +1,6 @@
+-- Точность, с которой записаны регистры HyperLogLog. Индексы регистров при разной точности несовместимы,
+-- поэтому при смене stats.hll.relative-error скетчи пересчитываются заново
+CREATE TABLE IF NOT EXISTS hit_sketch_settings (
+  id SMALLINT PRIMARY KEY CHECK (id = 1),
+  register_precision INTEGER NOT NULL
+);
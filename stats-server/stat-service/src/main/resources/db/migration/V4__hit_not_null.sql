@@ -0,0 +1,8 @@
+-- Базы, зафиксированные как baseline, создавал Hibernate, и у endpoint_hits нет NOT NULL из V1.
+-- На секционированной таблице ограничение распространяется на все секции. Длину ip здесь не сужаем:
+-- на существующих данных это переписало бы всю таблицу и могло упасть на уже сохранённых адресах
+ALTER TABLE endpoint_hits
+  ALTER COLUMN app SET NOT NULL,
+  ALTER COLUMN uri SET NOT NULL,
+  ALTER COLUMN ip SET NOT NULL,
+  ALTER COLUMN visit_time SET NOT NULL;
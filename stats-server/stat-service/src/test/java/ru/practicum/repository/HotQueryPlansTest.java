@@ -0,0 +1,164 @@
+package ru.practicum.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import ru.practicum.testing.PostgresTestDatabase;
+import ru.practicum.testing.RequiresPostgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы горячих запросов статистики на базе после миграций. Секции за январь-март создаются так же,
+// как их создаёт HitPartitionService; хиты пишутся в порядке времени, как и приходят от ewm.
+// Настройки планировщика не меняются
+@RequiresPostgres
+class HotQueryPlansTest {
+  private static final String FEBRUARY_INDEX = "endpoint_hits_p202602_(uri_visit_time|visit_time_uri)_idx";
+
+  private static PostgresTestDatabase database;
+
+  @BeforeAll
+  static void setUp() throws SQLException {
+    database = PostgresTestDatabase.start("stats_plans");
+    Flyway.configure()
+            .dataSource(database.getUrl(), database.getUsername(), database.getPassword())
+            .load()
+            .migrate();
+
+    try (Connection connection = database.connect();
+         Statement statement = connection.createStatement()) {
+      statement.execute("SELECT setseed(0.42)");
+      for (String month : new String[]{"01", "02", "03"}) {
+        statement.execute("CREATE TABLE endpoint_hits_p2026" + month + " PARTITION OF endpoint_hits " +
+                "FOR VALUES FROM ('2026-" + month + "-01') TO (DATE '2026-" + month + "-01' + INTERVAL '1 month')");
+      }
+      // Десятая часть хитов приходится на список /events, остальные - на 5000 событий
+      statement.execute("INSERT INTO endpoint_hits (app, uri, ip, visit_time) " +
+              "SELECT 'ewm-main-service', " +
+              "CASE WHEN random() < 0.1 THEN '/events' ELSE '/events/' || (1 + (random() * 4999)::int) END, " +
+              "'10.' || (random() * 255)::int || '.' || (random() * 255)::int || '.' || (random() * 255)::int, " +
+              "TIMESTAMP '2026-01-01' + i * INTERVAL '30 seconds' " +
+              "FROM generate_series(0, 259199) i");
+      statement.execute("INSERT INTO hit_rollups (granularity, app, uri, bucket_start, hits) " +
+              "SELECT 'HOUR', 'ewm-main-service', '/events/' || u, TIMESTAMP '2026-02-01' + h * INTERVAL '1 hour', " +
+              "1 + (random() * 100)::int " +
+              "FROM generate_series(1, 500) u, generate_series(0, 335) h");
+      statement.execute("INSERT INTO hit_sketch_registers (granularity, app, uri, bucket_start, register_index, " +
+              "register_value) " +
+              "SELECT 'HOUR', 'ewm-main-service', '/events/' || u, TIMESTAMP '2026-02-01' + h * INTERVAL '1 hour', " +
+              "r, 1 + (random() * 10)::int " +
+              "FROM generate_series(1, 100) u, generate_series(0, 47) h, generate_series(0, 63) r");
+      statement.execute("ANALYZE");
+    }
+  }
+
+  @AfterAll
+  static void tearDown() {
+    if (database != null) {
+      database.close();
+    }
+  }
+
+  @Test
+  void statsForUrisUseHitIndexOfRequestedPartitionOnly() throws SQLException {
+    String plan = explain("SELECT app, uri, count(*) FROM endpoint_hits " +
+            "WHERE visit_time BETWEEN '2026-02-01' AND '2026-02-11' AND uri IN ('/events/1', '/events/2') " +
+            "GROUP BY app, uri");
+
+    assertThat(plan).containsPattern(FEBRUARY_INDEX)
+            .doesNotContain("endpoint_hits_p202601", "endpoint_hits_p202603");
+  }
+
+  @Test
+  void statsForUriPrefixUseTimeIndexOfRequestedPartitionOnly() throws SQLException {
+    String plan = explain("SELECT app, uri, count(*) FROM endpoint_hits " +
+            "WHERE visit_time >= '2026-02-02' AND visit_time < '2026-02-03' AND uri LIKE '/events%' " +
+            "GROUP BY app, uri");
+
+    assertThat(plan).contains("endpoint_hits_p202602_visit_time_uri_idx")
+            .doesNotContain("endpoint_hits_p202601", "endpoint_hits_p202603");
+  }
+
+  @Test
+  void rollupsForUrisUseUriIndex() throws SQLException {
+    assertThat(explain("SELECT app, uri, sum(hits) FROM hit_rollups WHERE granularity = 'HOUR' " +
+            "AND bucket_start >= '2026-02-10' AND bucket_start < '2026-02-11' " +
+            "AND uri IN ('/events/1', '/events/2') GROUP BY app, uri"))
+            .contains("idx_hit_rollups_uri");
+  }
+
+  @Test
+  void sketchRegistersForUriUseUriIndex() throws SQLException {
+    assertThat(explain("SELECT register_index, max(register_value) FROM hit_sketch_registers " +
+            "WHERE granularity = 'HOUR' AND bucket_start >= '2026-02-01' AND bucket_start < '2026-02-02' " +
+            "AND uri IN ('/events/1') GROUP BY register_index"))
+            .contains("idx_hit_sketch_registers_uri");
+  }
+
+  // База со схемой до Flyway обновляется так же, как при старте сервиса: V1 фиксируется как baseline,
+  // endpoint_hits переносится в секционированную таблицу, таблицы агрегатов и скетчей создаются миграциями
+  @Test
+  void legacyDatabaseUpgradesWithBaseline() throws SQLException, IOException {
+    try (PostgresTestDatabase legacy = PostgresTestDatabase.start("stats_legacy")) {
+      try (Connection connection = legacy.connect();
+           Statement statement = connection.createStatement()) {
+        statement.execute(resource("/db/legacy/schema.sql"));
+        statement.execute("INSERT INTO endpoint_hits (app, uri, ip, visit_time) " +
+                "SELECT 'ewm-main-service', '/events/' || i, '10.0.0.' || i, TIMESTAMP '2026-01-01' + i * INTERVAL '1 hour' " +
+                "FROM generate_series(1, 100) i");
+      }
+
+      Flyway.configure()
+              .dataSource(legacy.getUrl(), legacy.getUsername(), legacy.getPassword())
+              .baselineOnMigrate(true)
+              .baselineVersion("1")
+              .load()
+              .migrate();
+
+      try (Connection connection = legacy.connect();
+           Statement statement = connection.createStatement()) {
+        assertThat(single(statement, "SELECT relkind FROM pg_class WHERE relname = 'endpoint_hits'")).isEqualTo("p");
+        assertThat(single(statement, "SELECT count(*) FROM endpoint_hits")).isEqualTo("100");
+        assertThat(single(statement, "SELECT string_agg(relname, ',' ORDER BY relname) FROM pg_class WHERE relname IN " +
+                "('hit_rollups', 'hit_sketch_registers', 'hit_sketch_settings', 'idx_hit_rollups_uri', " +
+                "'idx_hit_sketch_registers_uri')"))
+                .isEqualTo("hit_rollups,hit_sketch_registers,hit_sketch_settings,idx_hit_rollups_uri," +
+                        "idx_hit_sketch_registers_uri");
+      }
+    }
+  }
+
+  private static String single(Statement statement, String sql) throws SQLException {
+    try (ResultSet rs = statement.executeQuery(sql)) {
+      rs.next();
+      return rs.getString(1);
+    }
+  }
+
+  private static String resource(String name) throws IOException {
+    try (InputStream input = HotQueryPlansTest.class.getResourceAsStream(name)) {
+      return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static String explain(String sql) throws SQLException {
+    StringBuilder plan = new StringBuilder();
+    try (Connection connection = database.connect();
+         Statement statement = connection.createStatement();
+         ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+      while (rs.next()) {
+        plan.append(rs.getString(1)).append('\n');
+      }
+    }
+    return plan.toString();
+  }
+}
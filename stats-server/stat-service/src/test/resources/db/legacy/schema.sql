@@ -1,3 +1,4 @@
+-- Схема базы до перехода на Flyway: прежний schema.sql
 CREATE TABLE IF NOT EXISTS endpoint_hits (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     app VARCHAR(255) NOT NULL,
@@ -0,0 +1,20 @@
+package ru.practicum.testing;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+class PostgresAvailableCondition implements ExecutionCondition {
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(PostgresAvailableCondition.class);
+
+    // Проверка Docker небыстрая, результат запоминается на весь запуск
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        boolean available = context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent("available", key -> PostgresTestDatabase.isAvailable(), Boolean.class);
+        return available
+                ? ConditionEvaluationResult.enabled("PostgreSQL доступен")
+                : ConditionEvaluationResult.disabled("Нет Docker и не задан test.postgres.url: тест с базой пропущен");
+    }
+}
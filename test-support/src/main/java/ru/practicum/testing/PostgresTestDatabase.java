@@ -0,0 +1,91 @@
+package ru.practicum.testing;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+// Пустая база PostgreSQL на время теста или бенчмарка. По умолчанию поднимается контейнер через Testcontainers.
+// Если задан test.postgres.url (или TEST_POSTGRES_URL) - адрес служебной базы уже запущенного сервера,
+// на нём создаётся отдельная база со случайным именем и удаляется при закрытии; так тесты идут и без Docker
+@Slf4j
+public final class PostgresTestDatabase implements AutoCloseable {
+    private static final String IMAGE = "postgres:16-alpine";
+
+    @Getter
+    private final String url;
+    @Getter
+    private final String username;
+    @Getter
+    private final String password;
+    private final PostgreSQLContainer<?> container;
+    private final String serverUrl;
+    private final String database;
+
+    private PostgresTestDatabase(String url, String username, String password, PostgreSQLContainer<?> container,
+                                 String serverUrl, String database) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.container = container;
+        this.serverUrl = serverUrl;
+        this.database = database;
+    }
+
+    public static PostgresTestDatabase start(String name) {
+        String serverUrl = setting("test.postgres.url", "TEST_POSTGRES_URL", null);
+        if (serverUrl == null) {
+            PostgreSQLContainer<?> container = new PostgreSQLContainer<>(IMAGE).withDatabaseName(name);
+            container.start();
+            return new PostgresTestDatabase(container.getJdbcUrl(), container.getUsername(), container.getPassword(),
+                    container, null, null);
+        }
+
+        String username = setting("test.postgres.username", "TEST_POSTGRES_USERNAME", "postgres");
+        String password = setting("test.postgres.password", "TEST_POSTGRES_PASSWORD", "postgres");
+        String database = name + "_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        execute(serverUrl, username, password, "CREATE DATABASE " + database);
+        log.info("Создана временная база {} на {}", database, serverUrl);
+
+        String url = serverUrl.substring(0, serverUrl.lastIndexOf('/') + 1) + database;
+        return new PostgresTestDatabase(url, username, password, null, serverUrl, database);
+    }
+
+    public static boolean isAvailable() {
+        return setting("test.postgres.url", "TEST_POSTGRES_URL", null) != null
+                || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        } else {
+            execute(serverUrl, username, password, "DROP DATABASE IF EXISTS " + database + " WITH (FORCE)");
+        }
+    }
+
+    private static void execute(String url, String username, String password, String sql) {
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось выполнить " + sql + " на " + url, e);
+        }
+    }
+
+    private static String setting(String property, String variable, String defaultValue) {
+        String value = System.getProperty(property, System.getenv(variable));
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+}
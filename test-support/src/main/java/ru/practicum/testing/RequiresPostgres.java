@@ -0,0 +1,16 @@
+package ru.practicum.testing;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Тест с PostgresTestDatabase пропускается, если нет ни Docker, ни test.postgres.url (TEST_POSTGRES_URL),
+// чтобы обычный mvn test проходил без базы
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(PostgresAvailableCondition.class)
+public @interface RequiresPostgres {
+}